@@ -0,0 +1,26 @@
+package Mines.Benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all benchmarks with allocation profiler, so results show both throughput and allocation rate.
+ * Optional argument is regular expression selecting benchmarks, e.g. <code>Uncover</code>.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class Benchmarks
+{
+    public static void main(String[] args) throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "Mines\\.Benchmarks\\..*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
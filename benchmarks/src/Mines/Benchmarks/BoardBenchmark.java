@@ -0,0 +1,72 @@
+package Mines.Benchmarks;
+
+import Mines.Controller.Controller;
+import Mines.Model.Board;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static Mines.Images.TILES;
+
+/**
+ * Benchmarks of operations which don't change board in play: starting new game on existing board,
+ * checking whether game is won and looking up icons of all fields, as GUI does when it redraws board.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoardBenchmark
+{
+    private static final long SEED = 20151104L;
+
+    @Param({BoardSizes.BEGINNER, BoardSizes.EXPERT, BoardSizes.LARGE, BoardSizes.HUGE})
+    public String size;
+
+    private int height;
+    private int width;
+    private int minesNumber;
+    private Board board;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        int[] parameters = BoardSizes.parameters(size);
+        height = parameters[0];
+        width = parameters[1];
+        minesNumber = parameters[2];
+
+        /* game in progress: mines placed and opening around the middle uncovered */
+        board = new Board();
+        board.newGame(height, width, minesNumber, SEED);
+        board.uncover(height / 2, width / 2);
+        board.clearChanges();
+    }
+
+    @Benchmark
+    public Board newGame()
+    {
+        board.newGame(height, width, minesNumber, SEED);
+        return board;
+    }
+
+    @Benchmark
+    public boolean isGameWon()
+    {
+        return board.isGameWon();
+    }
+
+    @Benchmark
+    public void getIcons(Blackhole blackhole)
+    {
+        for (int x = 0; x < height; x++)
+            for (int y = 0; y < width; y++)
+                blackhole.consume(TILES[Controller.getTile(board, x, y)]);
+    }
+}
@@ -0,0 +1,41 @@
+package Mines.Benchmarks;
+
+/**
+ * Sizes of boards used by benchmarks, given as values of <code>size</code> parameter.
+ * Big boards have the same density of mines as expert board.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+final class BoardSizes
+{
+    static final String BEGINNER = "beginner";
+    static final String EXPERT = "expert";
+    static final String LARGE = "1000x1000";
+    static final String HUGE = "10000x10000";
+
+    private BoardSizes()
+    {}
+
+    /**
+     * Returns parameters of board of given size.
+     * @param size one of sizes defined in this class.
+     * @return array with height, width and number of mines.
+     */
+    static int[] parameters(String size)
+    {
+        switch (size)
+        {
+            case BEGINNER:
+                return new int[] {9, 9, 10};
+            case EXPERT:
+                return new int[] {16, 30, 99};
+            case LARGE:
+                return new int[] {1000, 1000, 206250};
+            case HUGE:
+                return new int[] {10000, 10000, 20625000};
+            default:
+                throw new IllegalArgumentException("Unknown board size: " + size);
+        }
+    }
+}
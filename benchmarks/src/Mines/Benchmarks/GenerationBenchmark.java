@@ -0,0 +1,53 @@
+package Mines.Benchmarks;
+
+import Mines.Model.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of placing mines and counting mines around fields, done at the first click.
+ * Every invocation starts with new game on the same board, with seed changing between invocations.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerationBenchmark
+{
+    @Param({BoardSizes.BEGINNER, BoardSizes.EXPERT, BoardSizes.LARGE, BoardSizes.HUGE})
+    public String size;
+
+    private int height;
+    private int width;
+    private int minesNumber;
+    private long seed;
+    private Board board = new Board();
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        int[] parameters = BoardSizes.parameters(size);
+        height = parameters[0];
+        width = parameters[1];
+        minesNumber = parameters[2];
+    }
+
+    @Setup(Level.Invocation)
+    public void newGame()
+    {
+        board.newGame(height, width, minesNumber, seed++);
+    }
+
+    @Benchmark
+    public Board initiateBoard()
+    {
+        board.initiateBoard(height / 2, width / 2);
+        return board;
+    }
+}
@@ -0,0 +1,121 @@
+package Mines.Benchmarks;
+
+import Mines.Model.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of uncovering moves. Worst case of flood fill is board with a single mine,
+ * where the first click uncovers almost all fields. Chord is made on uncovered field next to
+ * covered non-mined field, after flagging mines around it.
+ * Boards are prepared before every invocation, so they don't become uncovered while measured.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UncoverBenchmark
+{
+    @Param({BoardSizes.BEGINNER, BoardSizes.EXPERT, BoardSizes.LARGE, BoardSizes.HUGE})
+    public String size;
+
+    private int height;
+    private int width;
+    private int minesNumber;
+    private long seed;
+
+    private Board floodBoard = new Board();
+    private Board chordBoard = new Board();
+    private int chordX;
+    private int chordY;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        int[] parameters = BoardSizes.parameters(size);
+        height = parameters[0];
+        width = parameters[1];
+        minesNumber = parameters[2];
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareBoards()
+    {
+        floodBoard.newGame(height, width, 1, seed);
+        floodBoard.initiateBoard(0, 0);
+
+        /* look for field to chord on, trying next seeds if the opening gives none */
+        do
+        {
+            chordBoard.newGame(height, width, minesNumber, seed++);
+            chordBoard.uncover(height / 2, width / 2);
+        }
+        while (!findChord());
+        chordBoard.clearChanges();
+    }
+
+    @Benchmark
+    public Board uncoverFloodFill()
+    {
+        floodBoard.uncover(0, 0);
+        return floodBoard;
+    }
+
+    @Benchmark
+    public Board uncoverAround()
+    {
+        chordBoard.uncoverAround(chordX, chordY);
+        return chordBoard;
+    }
+
+    /**
+     * Finds uncovered field with covered non-mined neighbour and flags all mines around it.
+     * @return <code>true</code> if such field was found.
+     */
+    private boolean findChord()
+    {
+        if (chordBoard.isGameWon())
+            return false;
+
+        /* start from the row of the first click, which crosses the opening */
+        for (int row = 0; row < height; row++)
+        {
+            int x = (height / 2 + row) % height;
+            for (int y = 0; y < width; y++)
+            {
+                if (chordBoard.isUncovered(x, y) && hasCoveredSafeNeighbour(x, y))
+                {
+                    chordX = x;
+                    chordY = y;
+                    for (int i = Math.max(0, x - 1); i <= Math.min(height - 1, x + 1); i++)
+                        for (int j = Math.max(0, y - 1); j <= Math.min(width - 1, y + 1); j++)
+                            if (chordBoard.isMined(i, j))
+                                chordBoard.toggleFlag(i, j);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether field has covered neighbour without mine.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @return <code>true</code> if there is such neighbour.
+     */
+    private boolean hasCoveredSafeNeighbour(int x, int y)
+    {
+        for (int i = Math.max(0, x - 1); i <= Math.min(height - 1, x + 1); i++)
+            for (int j = Math.max(0, y - 1); j <= Math.min(width - 1, y + 1); j++)
+                if (!chordBoard.isUncovered(i, j) && !chordBoard.isMined(i, j))
+                    return true;
+        return false;
+    }
+}
@@ -1,10 +1,21 @@
 package Mines.Controller;
 
+import Mines.Log.EventLog;
+import Mines.Metrics.Metrics;
+import Mines.Model.Autosave;
 import Mines.Model.Board;
-import Mines.Model.Highscores;
+import Mines.Model.BoardFactory;
+import Mines.Model.GameSession;
+import Mines.Model.HighscoreStore;
+import Mines.Model.MoveLog;
+import Mines.Model.MoveResult;
+import Mines.Model.Replay;
+import Mines.Solver.NoGuessGenerator;
 import Mines.View.GUI;
 
 import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 import static Mines.Images.*;
 
@@ -22,16 +33,41 @@ public class Controller {
      */
     public enum GameType {CUSTOM, BEGINNER, INTERMEDIATE, EXPERT}
 
+    public static final int MIN_SIZE = 8;
+    public static final int MAX_HEIGHT = 1000;
+    public static final int MAX_WIDTH = 1000;
+    /* time of one round of search for no-guess board, after which cancellation of search is checked */
+    public static final long NO_GUESS_TIMEOUT = 50;
+    /* time after which search for no-guess board gives up and ordinary board is used */
+    public static final long NO_GUESS_GIVE_UP = 10000;
+    /* boards with more fields get mines set in background at the first click */
+    public static final int BACKGROUND_FIELDS = 100000;
+
     public int height;
     public int width;
     private Board board ;
+    private GameSession session;
+    private BoardFactory boardFactory = new BoardFactory();
     private GUI gui;
     private MinesTimer timer;
-    private Highscores highscores;
+    private HighscoreStore highscores;
     private GameType gameType;
+    private int minesNumber;
+    private Long nextSeed;
+    private boolean noGuess;
+    private NoGuessGenerator noGuessGenerator;
+    /* generation of board running in background after the first click, null if there is none */
+    private SwingWorker<Board, Void> boardGeneration;
+    private MoveLog moveLog;
+    private Autosave autosave = new Autosave();
+    private Replay replay;
+    private Timer replayTimer;
+    /* games in which a move was undone don't get into highscores */
+    private boolean undoUsed;
 
     /**
      * Creates controller object and gets reference to GUI, model, and creates timer object.
+     * Highscores are loaded once here and kept in memory.
      * It also sets reference ing GUI to itself.
      * @param gui reference to GUI
      * @param board reference to model
@@ -40,7 +76,9 @@ public class Controller {
         this.gui = gui;
         gui.setController(this);
         this.board = board;
+        this.session = new GameSession(board);
         this.timer = new MinesTimer(gui.getTimerLabel());
+        this.highscores = HighscoreStore.open();
     }
 
     /**
@@ -49,12 +87,14 @@ public class Controller {
      * @param width board width.
      * @param height board height.
      * @param minesNumber number of mines on board.
-     * @throws Exception thrown in case board does not meet map size conditions (min 8x8; max 32x50)
+     * @throws Exception thrown in case board does not meet map size conditions
+     * (min <code>MIN_SIZE</code>x<code>MIN_SIZE</code>; max <code>MAX_HEIGHT</code>x<code>MAX_WIDTH</code>)
      * or there is less than 2 non mined fields.
      */
     public void newGame(int width, int height, int minesNumber) throws Exception
     {
-        if (width < 8 || height < 8 || height > 32 || width > 50 || minesNumber > height * width - 2)
+        if (width < MIN_SIZE || height < MIN_SIZE || height > MAX_HEIGHT || width > MAX_WIDTH
+                || minesNumber > height * width - 2)
             throw new Exception("Bad size Error");
 
         gameType = GameType.CUSTOM;
@@ -94,6 +134,71 @@ public class Controller {
         {}
     }
 
+    /**
+     * Sets seed of the board in next started game, so that game can be repeated.
+     * @param seed seed of the board.
+     */
+    public void setNextSeed(long seed)
+    {
+        nextSeed = seed;
+    }
+
+    /**
+     * Sets whether boards should be solvable without guessing. Setting applies from the next first click.
+     * @param noGuess <code>true</code> to generate no-guess boards.
+     */
+    public void setNoGuess(boolean noGuess)
+    {
+        this.noGuess = noGuess;
+        if (noGuess && noGuessGenerator == null)
+            noGuessGenerator = new NoGuessGenerator();
+    }
+
+    /**
+     * Starts again current game with board of given seed, keeping size and number of mines.
+     * @param seed seed of the board.
+     */
+    public void restartGame(long seed)
+    {
+        setNextSeed(seed);
+        initiateGame(width, height, minesNumber);
+    }
+
+    /**
+     * Resumes game saved by autosave, if there is one. Game continues from the saved time.
+     * @return <code>true</code> if game was resumed or <code>false</code> if there was no saved game.
+     */
+    public boolean resumeGame()
+    {
+        MoveLog log = autosave.resume(session);
+        if (log == null)
+            return false;
+
+        cancelBoardSearch();
+        board = session.getBoard();
+        moveLog = log;
+        undoUsed = false;
+        height = log.getHeight();
+        width = log.getWidth();
+        minesNumber = log.getMinesNumber();
+        gameType = GameType.CUSTOM;
+        if (height == 9 && width == 9 && minesNumber == 10)
+            gameType = GameType.BEGINNER;
+        else if (height == 16 && width == 16 && minesNumber == 30)
+            gameType = GameType.INTERMEDIATE;
+        else if (height == 16 && width == 30 && minesNumber == 99)
+            gameType = GameType.EXPERT;
+
+        gui.drawGUI(height, width);
+        gui.setSeed(board.getSeed());
+        gui.refreshBoard();
+        gui.setMinesLeft("Mines left: " + Integer.toString(board.getMinesLeft()));
+        timer.restartTimer();
+        timer.setTime(autosave.getResumedTime() * 1000000);
+        autosave.start(board, moveLog, autosave.getResumedTime());
+        return true;
+    }
+
     /**
      * Function used to initiate new game with given parameters.
      * ATTENTION! Function isn't meant to be called directly by user, but through
@@ -104,14 +209,24 @@ public class Controller {
      */
     private void initiateGame(int width, int height, int minesNumber)
     {
-        highscores = Highscores.loadHighscores();
-
         this.height = height;
         this.width = width;
+        this.minesNumber = minesNumber;
 
-
-        board.newGame(height, width, minesNumber);
+        stopReplay();
+        cancelBoardSearch();
+        if (nextSeed != null)
+            board = boardFactory.takeBoard(height, width, minesNumber, nextSeed);
+        else
+            board = boardFactory.takeBoard(height, width, minesNumber);
+        board.setMeasured(true);
+        session.newGame(board);
+        moveLog = new MoveLog(height, width, minesNumber, board.getSeed());
+        autosave.start(board, moveLog, 0);
+        undoUsed = false;
+        nextSeed = null;
         gui.drawGUI(height, width);
+        gui.setSeed(board.getSeed());
 
         gui.setMinesLeft("Mines left: " + Integer.toString(minesNumber));
         timer.restartTimer();
@@ -120,24 +235,192 @@ public class Controller {
     /**
      * Function controls what happens when field in given point has been left clicked.
      * It uncovers field if it isn't flagged and tells GUI to refresh. When mine is uncovered
-     * it sends information about it to both GUI and Model.
+     * it sends information about it to both GUI and Model. The first click of no-guess game or of board
+     * bigger than <code>BACKGROUND_FIELDS</code> only starts generation of the board, and field
+     * is uncovered when board is generated.
      * @param x vertical position of clicked field (Counting from 0).
      * @param y horizontal position of clicked field (Counting from 0).
      */
     public void leftClicked (int x, int y)
+    {
+        if (replay != null || boardGeneration != null)
+            return;
+
+        if (!board.isInitiated() && !board.isFlagged(x, y) && (noGuess || height * width > BACKGROUND_FIELDS))
+            generateBoard(x, y);
+        else
+            reveal(x, y);
+    }
+
+    /**
+     * Function uncovers field in given point, records move and ends game if it is lost or won.
+     * @param x vertical position of field (Counting from 0).
+     * @param y horizontal position of field (Counting from 0).
+     */
+    private void reveal(int x, int y)
     {
         timer.startTimer();
-        if (!board.isFlagged(x, y))
+        MoveResult result = session.reveal(x, y);
+        if (result.isChanged())
         {
-            if (board.uncover(x, y))
-            {
-                gameOverLost();
-            }
+            Metrics.cellsRevealed(x, y, result.getRevealed().size());
+            recordMove(MoveLog.REVEAL, x, y);
         }
-        if (board.isGameWon())
+        if (result.isChanged() && result.getState() == GameSession.State.LOST)
+            gameOverLost();
+        else if (result.isChanged() && result.getState() == GameSession.State.WON)
             gameOverWon();
 
-        gui.refreshBoard();
+        refreshChanges();
+    }
+
+    /**
+     * Function starts generation of board for the first click in given point. Generation runs
+     * in background with board disabled and "Generating" text shown, and board is initiated there,
+     * so event dispatch thread only takes its mines at the first uncover. In no-guess game, board
+     * which can be solved without guessing is searched for first, in rounds of <code>NO_GUESS_TIMEOUT</code>
+     * milliseconds, until it is found, generation is cancelled by new game or <code>NO_GUESS_GIVE_UP</code>
+     * milliseconds pass.
+     * @param x vertical position of the first click (Counting from 0).
+     * @param y horizontal position of the first click (Counting from 0).
+     */
+    private void generateBoard(int x, int y)
+    {
+        int height = this.height;
+        int width = this.width;
+        int minesNumber = this.minesNumber;
+        long seed = board.getSeed();
+        boolean noGuess = this.noGuess;
+
+        gui.disableBoard();
+        gui.showGeneratingText();
+        boardGeneration = new SwingWorker<Board, Void>() {
+            /* whether no-guess board wasn't found */
+            private boolean guessing = noGuess;
+
+            @Override
+            protected Board doInBackground() {
+                long boardSeed = seed;
+                if (noGuess)
+                {
+                    NoGuessGenerator.Result result = findNoGuess(height, width, minesNumber, seed, x, y, this);
+                    boardSeed = result.getSeed();
+                    guessing = !result.isNoGuess();
+                }
+                if (isCancelled())
+                    return null;
+
+                /* prepared boards of factory are left for next games, arrays of this one are given back later */
+                Board prepared = new Board();
+                prepared.newGame(height, width, minesNumber, boardSeed);
+                prepared.setMeasured(true);
+                prepared.initiateBoard(x, y);
+                return prepared;
+            }
+
+            @Override
+            protected void done() {
+                if (boardGeneration != this)
+                    return;
+
+                boardGeneration = null;
+                Board prepared;
+                try
+                {
+                    prepared = get();
+                }
+                catch (InterruptedException | ExecutionException e)
+                {
+                    prepared = null;
+                }
+                startGenerated(prepared, guessing, x, y);
+            }
+        };
+        boardGeneration.execute();
+    }
+
+    /**
+     * Function searches for no-guess board in rounds, every round with seeds not checked before.
+     * Seed of current board is tried first, so restarted game with seed of no-guess board gets
+     * the same board. Called on background thread.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param seed seed of current board.
+     * @param x vertical position of the first click (Counting from 0).
+     * @param y horizontal position of the first click (Counting from 0).
+     * @param search background task of the search, whose cancellation stops it.
+     * @return result of the last round.
+     */
+    private NoGuessGenerator.Result findNoGuess(int height, int width, int minesNumber, long seed, int x, int y,
+                                                SwingWorker<?, ?> search)
+    {
+        long start = System.nanoTime();
+        long attempts = 0;
+        NoGuessGenerator.Result result;
+        while (true)
+        {
+            result = noGuessGenerator.generate(height, width, minesNumber, seed, x, y, NO_GUESS_TIMEOUT);
+            attempts += result.getAttempts();
+            if (result.isNoGuess() || search.isCancelled() || System.nanoTime() - start > NO_GUESS_GIVE_UP * 1000000)
+                break;
+            seed = NoGuessGenerator.candidateSeed(seed, result.getAttempts());
+        }
+
+        EventLog.log(result.isNoGuess() ? EventLog.Type.NO_GUESS_FOUND : EventLog.Type.NO_GUESS_TIMEOUT,
+                (int) Math.min(attempts, Integer.MAX_VALUE),
+                (int) Math.round(1000 * noGuessGenerator.getRejectionRate()), result.getSeed(),
+                System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Function gives board generated in background to current game, not started yet, and uncovers
+     * the first clicked field. If no-guess search found board of other seed, board of current game
+     * is replaced, flags set before are removed and game is recorded from the beginning.
+     * If no-guess search gave up or generation failed, player is told that board may need guessing.
+     * Prepared board is given back to board factory afterwards.
+     * @param prepared initiated board, <code>null</code> if generation failed.
+     * @param guessing whether board may need guessing although no-guess game was chosen.
+     * @param x vertical position of the first click (Counting from 0).
+     * @param y horizontal position of the first click (Counting from 0).
+     */
+    private void startGenerated(Board prepared, boolean guessing, int x, int y)
+    {
+        gui.enableBoard();
+        if (guessing)
+            gui.showGuessingText();
+        else
+            gui.hideGameStateText();
+
+        if (prepared != null && prepared.getSeed() != board.getSeed())
+        {
+            session.newGame(height, width, minesNumber, prepared.getSeed());
+            moveLog = new MoveLog(height, width, minesNumber, board.getSeed());
+            autosave.start(board, moveLog, 0);
+            gui.setSeed(board.getSeed());
+            gui.setMinesLeft("Mines left: " + Integer.toString(minesNumber));
+            gui.refreshBoard();
+        }
+        board.setPrepared(prepared);
+        reveal(x, y);
+        /* after the first uncover prepared board holds arrays given away by board of the game */
+        if (prepared != null && board.isInitiated())
+            boardFactory.returnBoard(prepared);
+    }
+
+    /**
+     * Function stops generation of board, if there is one, and enables board again.
+     */
+    private void cancelBoardSearch()
+    {
+        if (boardGeneration == null)
+            return;
+
+        boardGeneration.cancel(false);
+        boardGeneration = null;
+        gui.enableBoard();
+        gui.hideGameStateText();
     }
 
     /**
@@ -148,10 +431,203 @@ public class Controller {
      */
     public void rightClicked (int x, int y)
     {
-        board.toggleFlag(x, y);
+        if (replay != null || boardGeneration != null)
+            return;
+
+        if (session.flag(x, y).isChanged())
+            recordMove(MoveLog.FLAG, x, y);
+        gui.setMinesLeft("Mines left: " + Integer.toString(board.getMinesLeft()));
+
+        refreshChanges();
+    }
+
+    /**
+     * Function takes back the last move of current game, also the move which lost it.
+     * Won game can't be undone. Lost game goes on after undo, with board enabled and timer started again.
+     * Game in which undo was used doesn't get into highscores.
+     */
+    public void undo()
+    {
+        if (replay != null || boardGeneration != null || session.getState() == GameSession.State.WON)
+            return;
+
+        boolean lost = session.getState() == GameSession.State.LOST;
+        if (!session.undo())
+            return;
+
+        undoUsed = true;
+        moveLog.removeLast();
+        if (lost)
+        {
+            gui.enableBoard();
+            gui.hideGameStateText();
+        }
+        if (session.getState() == GameSession.State.READY)
+            timer.restartTimer();
+        else if (lost)
+            timer.startTimer();
+
+        autosave.moveUndone(board, moveLog, timer.getNanos() / 1000000);
+        gui.setMinesLeft("Mines left: " + Integer.toString(board.getMinesLeft()));
+        refreshChanges();
+    }
+
+    /**
+     * Function makes again the last undone move, like it was clicked.
+     */
+    public void redo()
+    {
+        if (replay != null || boardGeneration != null)
+            return;
+
+        MoveResult result = session.redo();
+        if (!result.isChanged())
+            return;
+
+        timer.startTimer();
+        recordMove(session.getLastAction(), session.getLastX(), session.getLastY());
+        if (result.getState() == GameSession.State.LOST)
+            gameOverLost();
+        else if (result.getState() == GameSession.State.WON)
+            gameOverWon();
+
+        gui.setMinesLeft("Mines left: " + Integer.toString(board.getMinesLeft()));
+        refreshChanges();
+    }
+
+    /**
+     * Function starts replay of current game, from its beginning. Board shows replayed game
+     * and clicks are ignored until replay is stopped.
+     */
+    public void startReplay()
+    {
+        if (replay != null || boardGeneration != null || moveLog == null || moveLog.getMoveCount() == 0)
+            return;
+
+        replay = new Replay(moveLog);
+        board = replay.getBoard();
+        gui.refreshBoard();
+        gui.showReplayDialog(replay.getMoveCount());
+    }
+
+    /**
+     * Function shows state of replayed game after given number of moves.
+     * @param move number of moves.
+     */
+    public void seekReplay(int move)
+    {
+        if (replay == null || move == replay.getPosition())
+            return;
+
+        replay.seek(move);
+        board.clearChanges();
+        gui.refreshBoard();
         gui.setMinesLeft("Mines left: " + Integer.toString(board.getMinesLeft()));
+    }
+
+    /**
+     * Function plays replayed game from current move, with the same delays between moves as in the game.
+     */
+    public void playReplay()
+    {
+        if (replay == null)
+            return;
+
+        if (replayTimer == null)
+        {
+            replayTimer = new Timer(0, e -> stepReplay());
+            replayTimer.setRepeats(false);
+        }
+        scheduleReplayStep();
+    }
 
+    /**
+     * Function stops playing replayed game at current move.
+     */
+    public void pauseReplay()
+    {
+        if (replayTimer != null)
+            replayTimer.stop();
+    }
+
+    /**
+     * Function ends replay and shows board of current game again.
+     */
+    public void stopReplay()
+    {
+        if (replay == null)
+            return;
+
+        pauseReplay();
+        replay = null;
+        gui.closeReplayDialog();
+        board = session.getBoard();
         gui.refreshBoard();
+        gui.setMinesLeft("Mines left: " + Integer.toString(board.getMinesLeft()));
+    }
+
+    /**
+     * Function returns log of moves of current game.
+     * @return log of current game.
+     */
+    public MoveLog getMoveLog()
+    {
+        return moveLog;
+    }
+
+    /**
+     * Function applies next move of replay, refreshes changed fields and schedules the following move.
+     */
+    private void stepReplay()
+    {
+        if (replay == null || replay.step() == null)
+            return;
+
+        refreshChanges();
+        gui.setMinesLeft("Mines left: " + Integer.toString(board.getMinesLeft()));
+        gui.setReplayPosition(replay.getPosition());
+        scheduleReplayStep();
+    }
+
+    /**
+     * Function sets timer of replay to delay between previous and next move.
+     */
+    private void scheduleReplayStep()
+    {
+        int position = replay.getPosition();
+        if (position >= replay.getMoveCount())
+            return;
+
+        long delay = position == 0 ? 0 : replay.getTime(position) - replay.getTime(position - 1);
+        replayTimer.setInitialDelay((int) Math.min(delay, Integer.MAX_VALUE));
+        replayTimer.restart();
+    }
+
+    /**
+     * Function records move which changed the board in log of the game and autosave.
+     * Autosave is removed when game is over.
+     * @param action one of <code>MoveLog</code> actions.
+     * @param x vertical position of field (Counting from 0).
+     * @param y horizontal position of field (Counting from 0).
+     */
+    private void recordMove(int action, int x, int y)
+    {
+        long time = timer.getNanos() / 1000000;
+        moveLog.add(action, x, y, time);
+        if (session.isOver())
+            autosave.clear();
+        else
+            autosave.moveMade(board, moveLog, action, x, y, time);
+    }
+
+    /**
+     * Function tells GUI to refresh only fields changed since last refresh and clears
+     * list of changes kept by board.
+     */
+    private void refreshChanges()
+    {
+        gui.refreshFields(board.getChanges());
+        board.clearChanges();
     }
 
     /**
@@ -161,44 +637,48 @@ public class Controller {
      * @return icon for field.
      */
     public ImageIcon getIcon (int x, int y)
+    {
+        return TILES[getTile(x, y)];
+    }
+
+    /**
+     * Function gets number of tile for field in given point. Tiles of uncovered fields without mine
+     * are numbered like number of mines around, other tiles are <code>TILE_COVER</code>,
+     * <code>TILE_FLAGGED</code> and <code>TILE_MINE</code>.
+     * @param x vertical position of clicked field (Counting from 0).
+     * @param y horizontal position of clicked field (Counting from 0).
+     * @return number of tile in <code>TILES</code>.
+     */
+    public int getTile (int x, int y)
+    {
+        return getTile(board, x, y);
+    }
+
+    /**
+     * Function gets number of tile for field in given point of given board.
+     * It doesn't need controller nor GUI, so it can be used by benchmarks and other views.
+     * @param board board of the game.
+     * @param x vertical position of clicked field (Counting from 0).
+     * @param y horizontal position of clicked field (Counting from 0).
+     * @return number of tile in <code>TILES</code>.
+     */
+    public static int getTile (Board board, int x, int y)
     {
         if (board.isFlagged(x, y))
         {
-            return IMAGE_FLAGGED;
+            return TILE_FLAGGED;
         }
         else if (!board.isUncovered(x, y))
         {
-            return IMAGE_COVER;
+            return TILE_COVER;
         }
         else if (board.isMined(x, y))
         {
-            return IMAGE_MINE;
+            return TILE_MINE;
         }
         else
         {
-            switch (board.getNearbyMines(x, y))
-            {
-                case 0:
-                    return IMAGE_0;
-                case 1:
-                    return IMAGE_1;
-                case 2:
-                    return IMAGE_2;
-                case 3:
-                    return IMAGE_3;
-                case 4:
-                    return IMAGE_4;
-                case 5:
-                    return IMAGE_5;
-                case 6:
-                    return IMAGE_6;
-                case 7:
-                    return IMAGE_7;
-                case 8:
-                    return IMAGE_8;
-                default:
-                    return IMAGE_COVER;
-            }
+            return board.getNearbyMines(x, y);
         }
     }
 
@@ -212,12 +692,13 @@ public class Controller {
         gui.disableBoard();
         gui.showGameOverText();
         board.showAllMined();
-        gui.refreshBoard();
     }
 
     /**
      * Function called to set game over when wll not mined fields are uncovered.
      * It stops timer, disables GUI buttons and shows "Game won" text in statusbar.
+     * Dialog asking for name of player with highscore is shown after the click is handled,
+     * so that time of entering name isn't counted in click latency.
      */
     private void gameOverWon()
     {
@@ -225,42 +706,52 @@ public class Controller {
         gui.disableBoard();
         gui.showGameWonText();
 
-        switch (gameType)
+        int height = this.height;
+        int width = this.width;
+        int minesNumber = this.minesNumber;
+        int time = (int) (timer.getNanos() / 1000000);
+        if (!undoUsed && highscores.isHighscore(height, width, minesNumber, time))
         {
-            case BEGINNER:
-                if (highscores.newBeginnerTime(timer.getTime()))
-                {
-                    highscores.setNameBeginner(gui.getName());
-                }
-                break;
-            case INTERMEDIATE:
-                if (highscores.newIntermediateTime(timer.getTime()))
-                {
-                    highscores.setNameIntermediate(gui.getName());
-                }
-                break;
-            case EXPERT:
-                if (highscores.newExpertTime(timer.getTime()))
-                {
-                    highscores.setNameExpert(gui.getName());
-                }
-                break;
-            default:
-                break;
+            SwingUtilities.invokeLater(() -> highscores.record(height, width, minesNumber, time, gui.getName()));
         }
-
-        Highscores.saveHighscores(highscores);
     }
 
     /**
-     * Function gets highscores entry as three-lined <code>String</code>.
-     * Each line style is: [Difficulty level]: [name], [time].
+     * Function gets highscores text. First three lines contain the best entry of each difficulty level,
+     * in style: [Difficulty level]: [name], [time]. They are followed by list of the best entries
+     * of current board, if it is custom board.
      * @return Highscores text.
      */
     public String getHighscoresText()
     {
-        return highscores.getBeginnerEntry() + "\n" +
-                highscores.getIntermediateEnty() + "\n" +
-                highscores.getExpertEntry();
+        StringBuilder text = new StringBuilder();
+        text.append(getBestEntry("Beginner", 9, 9, 10)).append("\n");
+        text.append(getBestEntry("Intermediate", 16, 16, 30)).append("\n");
+        text.append(getBestEntry("Expert", 16, 30, 99));
+
+        if (gameType == GameType.CUSTOM)
+        {
+            text.append("\n\nCustom ").append(height).append("x").append(width)
+                    .append(", ").append(minesNumber).append(" mines:");
+            int place = 1;
+            for (HighscoreStore.Entry entry: highscores.getTop(height, width, minesNumber))
+                text.append("\n").append(place++).append(". ").append(entry);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Function gets the best entry of board configuration as <code>String</code>.
+     * Line style is: [label]: [name], [time]
+     * @param label name of configuration.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @return text of entry.
+     */
+    private String getBestEntry(String label, int height, int width, int minesNumber)
+    {
+        List<HighscoreStore.Entry> top = highscores.getTop(height, width, minesNumber);
+        return label + ": " + (top.isEmpty() ? "nobody, 999.99" : top.get(0).toString());
     }
 }
@@ -2,25 +2,28 @@ package Mines.Controller;
 
 import javax.swing.*;
 import java.text.DecimalFormat;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * Created on 13.11.2015.
  *
- * Class implements timer based on <code> java.util.Timer </code> class.
- * It counts time with respect to two decimal places and shows it in
- * label given in constructor.
+ * Class implements game clock. Time of the game is measured exactly, with <code>System.nanoTime</code>
+ * read when clock is started and stopped. Label given in constructor shows whole seconds and is refreshed
+ * once per second by <code>javax.swing.Timer</code>, so it is changed on event dispatch thread
+ * and nothing wakes up while clock is stopped. Time with two decimal places is shown when clock stops.
  *
  * @author Pawe³ Rybak
  * @version 1.0
  */
 public class MinesTimer
 {
+    private static final double MAX_TIME = 999.99;
+    private static final int REFRESH_DELAY = 1000;
+
     private Timer timer;
     private JLabel labeledTime;
     private DecimalFormat format = new DecimalFormat("#.##");
-    private double timerText = 0.00;
+    private long startNanos;
+    private long elapsedNanos;
     private boolean isStarted = false;
 
     /**
@@ -30,45 +33,40 @@ public class MinesTimer
     MinesTimer(JLabel label)
     {
         labeledTime = label;
+        timer = new Timer(REFRESH_DELAY, e -> refreshLabel());
+        timer.setCoalesce(true);
     }
 
     /**
-     * Starts timer if it isn't on the go, and refreshes label.
-     * If time counted is above 999.99 it stops timer.
+     * Starts timer if it isn't on the go, counting from time it was stopped at.
+     * Label is refreshed at every full second of the game.
      */
     public void startTimer()
     {
         if (isStarted)
             return;
 
-        timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                if (timerText >= 999.99) {
-                    stopTimer();
-                }
-                timerText = timerText + 0.01;
-                labeledTime.setText("Time: " + Integer.toString((int)timerText));
-            }
-        }, 10, 10);
+        startNanos = System.nanoTime() - elapsedNanos;
         isStarted = true;
+        timer.start();
     }
 
     /**
      * Stops timer if it it on the go and refreshes label.
+     * If time counted is above 999.99 label shows it is exceeded.
      */
     public void stopTimer() {
         if (!isStarted)
             return;
 
-        timer.cancel();
-        if (timerText >= 999.99)
+        elapsedNanos = System.nanoTime() - startNanos;
+        isStarted = false;
+        timer.stop();
+
+        if (getTime() >= MAX_TIME)
             labeledTime.setText("Time: >999,99");
         else
-            labeledTime.setText("Time: " + format.format(timerText));
-
-        isStarted = false;
+            labeledTime.setText("Time: " + format.format(getTime()));
     }
 
     /**
@@ -77,16 +75,54 @@ public class MinesTimer
     public void restartTimer()
     {
         stopTimer();
-        timerText = 0.00;
+        elapsedNanos = 0;
         labeledTime.setText("Time: 0");
     }
 
     /**
-     * Function returns current time converted to <code>float</code>.
+     * Sets time of stopped timer, e.g. of resumed game, and shows it in label.
+     * Timer counts from this time when it is started.
+     * @param nanos time of the game in nanoseconds.
+     */
+    public void setTime(long nanos)
+    {
+        if (isStarted)
+            return;
+
+        elapsedNanos = nanos;
+        labeledTime.setText("Time: " + Integer.toString((int)getTime()));
+    }
+
+    /**
+     * Function returns time of the game in seconds, measured until now if timer is on the go,
+     * or until it was stopped.
      * @return current time.
      */
     public float getTime()
     {
-        return (float)timerText;
+        return (float)(getNanos() / 1e9);
+    }
+
+    /**
+     * Function returns time of the game in nanoseconds.
+     * @return current time.
+     */
+    public long getNanos()
+    {
+        return isStarted ? System.nanoTime() - startNanos : elapsedNanos;
+    }
+
+    /**
+     * Function shows whole seconds of the game in label, and stops timer after 999.99 seconds.
+     */
+    private void refreshLabel()
+    {
+        if (!isStarted)
+            return;
+
+        if (getTime() >= MAX_TIME)
+            stopTimer();
+        else
+            labeledTime.setText("Time: " + Integer.toString((int)getTime()));
     }
 }
@@ -26,4 +26,12 @@ public class Images {
     public static final ImageIcon IMAGE_7 = new ImageIcon("swingImages/7.png");
     public static final ImageIcon IMAGE_8 = new ImageIcon("swingImages/8.png");
 
+    /* Tiles are numbered so that tile of uncovered field is equal to number of mines around it */
+    public static final int TILE_COVER = 9;
+    public static final int TILE_FLAGGED = 10;
+    public static final int TILE_MINE = 11;
+
+    public static final ImageIcon[] TILES = {IMAGE_0, IMAGE_1, IMAGE_2, IMAGE_3, IMAGE_4, IMAGE_5,
+            IMAGE_6, IMAGE_7, IMAGE_8, IMAGE_COVER, IMAGE_FLAGGED, IMAGE_MINE};
+
 }
@@ -0,0 +1,292 @@
+package Mines.Log;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log of game events, which can be written from event dispatch thread without delaying it.
+ *
+ * Event is a type and up to four numbers, stored in preallocated ring buffer of <code>CAPACITY</code> slots.
+ * Thread logging event claims slot with compare-and-set of sequence number, writes numbers into arrays
+ * and publishes slot, so logging doesn't lock, allocate nor do any I/O. If buffer is full, event is dropped
+ * and counted. Background thread wakes up every <code>DRAIN_INTERVAL</code> milliseconds, formats all
+ * published events and writes them in one batch, to standard output or to file.
+ *
+ * Events below level of the log are skipped before anything is written. Level and file are taken from
+ * system properties <code>mines.log.level</code> (default <code>INFO</code>) and <code>mines.log.file</code>.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public final class EventLog
+{
+    public static final int CAPACITY = 8192;
+    public static final long DRAIN_INTERVAL = 20;
+
+    private static final int MASK = CAPACITY - 1;
+
+    /**
+     * Importance of events.
+     */
+    public enum Level {DEBUG, INFO, WARNING, ERROR}
+
+    /**
+     * Types of events, with their level. Meaning of numbers of event depends on its type.
+     */
+    public enum Type
+    {
+        /* field x, y was clicked with left button */
+        LEFT_CLICK(Level.DEBUG),
+        /* field x, y was clicked with right button */
+        RIGHT_CLICK(Level.DEBUG),
+        /* no-guess board found after given attempts: attempts, rejection rate in tenths of percent, seed, nanoseconds */
+        NO_GUESS_FOUND(Level.INFO),
+        /* no-guess board not found in time, numbers like in NO_GUESS_FOUND */
+        NO_GUESS_TIMEOUT(Level.INFO);
+
+        private final Level level;
+
+        Type(Level level)
+        {
+            this.level = level;
+        }
+
+        public Level getLevel()
+        {
+            return level;
+        }
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    private static final AtomicLong head = new AtomicLong();
+    private static volatile long tail;
+    private static final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    private static final long[] times = new long[CAPACITY];
+    private static final byte[] types = new byte[CAPACITY];
+    private static final int[] firsts = new int[CAPACITY];
+    private static final int[] seconds = new int[CAPACITY];
+    private static final long[] thirds = new long[CAPACITY];
+    private static final long[] fourths = new long[CAPACITY];
+    private static final AtomicLong dropped = new AtomicLong();
+    private static long reportedDropped;
+
+    private static volatile int level = Level.INFO.ordinal();
+    private static volatile PrintStream output = System.out;
+    private static final Object drainLock = new Object();
+
+    static
+    {
+        String levelName = System.getProperty("mines.log.level");
+        if (levelName != null)
+        {
+            try
+            {
+                setLevel(Level.valueOf(levelName.toUpperCase()));
+            }
+            catch (IllegalArgumentException e)
+            {
+                System.err.println("Wrong log level: " + levelName);
+            }
+        }
+        String fileName = System.getProperty("mines.log.file");
+        if (fileName != null)
+        {
+            try
+            {
+                setOutput(new FileOutputStream(fileName, true));
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not open log file: " + fileName);
+            }
+        }
+
+        Thread drainer = new Thread(EventLog::drainLoop, "Event log writer");
+        drainer.setDaemon(true);
+        drainer.setPriority(Thread.MIN_PRIORITY);
+        drainer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(EventLog::drain, "Event log flush"));
+    }
+
+    private EventLog()
+    {
+    }
+
+    /**
+     * Sets level of the log. Events of lower level are skipped.
+     * @param level the lowest level of logged events.
+     */
+    public static void setLevel(Level level)
+    {
+        EventLog.level = level.ordinal();
+    }
+
+    /**
+     * Returns level of the log.
+     * @return the lowest level of logged events.
+     */
+    public static Level getLevel()
+    {
+        return Level.values()[level];
+    }
+
+    /**
+     * Checks whether events of given type would be logged.
+     * @param type type of event.
+     * @return <code>true</code> if level of type isn't lower than level of the log.
+     */
+    public static boolean isLogged(Type type)
+    {
+        return type.level.ordinal() >= level;
+    }
+
+    /**
+     * Sets stream to which events are written, standard output by default.
+     * @param stream stream to write events to.
+     */
+    public static void setOutput(OutputStream stream)
+    {
+        output = stream instanceof PrintStream ? (PrintStream) stream : new PrintStream(stream, false);
+    }
+
+    /**
+     * Logs event with two numbers, e.g. position of field.
+     * @param type type of event.
+     * @param first first number, e.g. vertical position of field.
+     * @param second second number, e.g. horizontal position of field.
+     * @return <code>true</code> if event was logged, <code>false</code> if it was skipped or dropped.
+     */
+    public static boolean log(Type type, int first, int second)
+    {
+        return log(type, first, second, 0, 0);
+    }
+
+    /**
+     * Logs event. Doesn't lock nor allocate, so it can be called on event dispatch thread.
+     * @param type type of event.
+     * @param first first number of event.
+     * @param second second number of event.
+     * @param third third number of event.
+     * @param fourth fourth number of event.
+     * @return <code>true</code> if event was logged, <code>false</code> if it was skipped or dropped
+     * because buffer is full.
+     */
+    public static boolean log(Type type, int first, int second, long third, long fourth)
+    {
+        if (type.level.ordinal() < level)
+            return false;
+
+        long sequence;
+        do
+        {
+            sequence = head.get();
+            if (sequence - tail >= CAPACITY)
+            {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        while (!head.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & MASK;
+        times[slot] = System.currentTimeMillis();
+        types[slot] = (byte) type.ordinal();
+        firsts[slot] = first;
+        seconds[slot] = second;
+        thirds[slot] = third;
+        fourths[slot] = fourth;
+        published.lazySet(slot, sequence + 1);
+        return true;
+    }
+
+    /**
+     * Returns number of events dropped because buffer was full.
+     * @return number of dropped events.
+     */
+    public static long getDropped()
+    {
+        return dropped.get();
+    }
+
+    /**
+     * Writes all published events at once. Called by background thread, and when virtual machine exits.
+     */
+    public static void drain()
+    {
+        synchronized (drainLock)
+        {
+            StringBuilder batch = new StringBuilder();
+            SimpleDateFormat format = new SimpleDateFormat("HH:mm:ss.SSS");
+            long next = tail;
+            while (published.get((int) next & MASK) == next + 1)
+            {
+                int slot = (int) next & MASK;
+                Type type = TYPES[types[slot]];
+                batch.append(format.format(new Date(times[slot]))).append(' ').append(type.level).append(' ');
+                appendMessage(batch, type, firsts[slot], seconds[slot], thirds[slot], fourths[slot]);
+                batch.append(System.lineSeparator());
+                next++;
+            }
+            tail = next;
+
+            long lost = dropped.get() - reportedDropped;
+            reportedDropped += lost;
+            if (lost > 0)
+                batch.append(lost).append(" events dropped").append(System.lineSeparator());
+            if (batch.length() > 0)
+            {
+                PrintStream stream = output;
+                stream.print(batch);
+                stream.flush();
+            }
+        }
+    }
+
+    /**
+     * Drains log every <code>DRAIN_INTERVAL</code> milliseconds.
+     */
+    private static void drainLoop()
+    {
+        while (true)
+        {
+            LockSupport.parkNanos(DRAIN_INTERVAL * 1000000);
+            drain();
+        }
+    }
+
+    /**
+     * Formats message of event.
+     * @param batch text to append message to.
+     * @param type type of event.
+     * @param first first number of event.
+     * @param second second number of event.
+     * @param third third number of event.
+     * @param fourth fourth number of event.
+     */
+    private static void appendMessage(StringBuilder batch, Type type, int first, int second, long third, long fourth)
+    {
+        switch (type)
+        {
+            case LEFT_CLICK:
+                batch.append("L-Clicked: ").append(first).append(", ").append(second);
+                break;
+            case RIGHT_CLICK:
+                batch.append("R-Clicked: ").append(first).append(", ").append(second);
+                break;
+            case NO_GUESS_FOUND:
+            case NO_GUESS_TIMEOUT:
+                batch.append(String.format("No-guess board: seed %d, %s after %d attempts in %.1f ms, "
+                        + "rejection rate %.1f%%", third, type == Type.NO_GUESS_FOUND ? "found" : "timed out",
+                        first, fourth / 1e6, second / 10.0));
+                break;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package Mines.Metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values, e.g. times in nanoseconds, which can be recorded by many threads at once.
+ *
+ * Values below <code>SUB_BUCKETS</code> have bucket of their own, and range between every two following
+ * powers of two above is split into <code>SUB_BUCKETS</code> buckets of equal width, so percentiles are
+ * accurate to 1/8 of value with fixed number of buckets. Recording takes one increment of bucket
+ * and doesn't lock nor allocate.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class Histogram
+{
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Values of histogram at one moment, in form which can be read through JMX.
+     */
+    public static class Summary
+    {
+        private final String name;
+        private final String unit;
+        private final long count;
+        private final double mean;
+        private final long median;
+        private final long percentile90;
+        private final long percentile99;
+        private final long max;
+
+        Summary(String name, String unit, long count, double mean, long median, long percentile90,
+                long percentile99, long max)
+        {
+            this.name = name;
+            this.unit = unit;
+            this.count = count;
+            this.mean = mean;
+            this.median = median;
+            this.percentile90 = percentile90;
+            this.percentile99 = percentile99;
+            this.max = max;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getUnit()
+        {
+            return unit;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public double getMean()
+        {
+            return mean;
+        }
+
+        public long getMedian()
+        {
+            return median;
+        }
+
+        public long getPercentile90()
+        {
+            return percentile90;
+        }
+
+        public long getPercentile99()
+        {
+            return percentile99;
+        }
+
+        public long getMax()
+        {
+            return max;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s: %d values, mean %.1f %s, median %d, 90%% %d, 99%% %d, max %d",
+                    name, count, mean, unit, median, percentile90, percentile99, max);
+        }
+    }
+
+    /**
+     * Creates empty histogram.
+     * @param name name of measured value.
+     * @param unit unit of recorded values.
+     */
+    public Histogram(String name, String unit)
+    {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    /**
+     * Records value. Negative values are recorded as 0.
+     * @param value value to record.
+     */
+    public void record(long value)
+    {
+        value = Math.max(0, value);
+        buckets.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns number of recorded values.
+     * @return number of values.
+     */
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Returns mean of recorded values.
+     * @return mean value, 0 if nothing was recorded.
+     */
+    public double getMean()
+    {
+        long values = count.sum();
+        return values == 0 ? 0 : (double) sum.sum() / values;
+    }
+
+    /**
+     * Returns the biggest recorded value.
+     * @return maximal value, 0 if nothing was recorded.
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Returns value below or equal to which is given fraction of recorded values.
+     * Returned value is the highest value of bucket containing percentile, but not higher than maximum.
+     * @param fraction fraction of values, from 0 to 1.
+     * @return percentile, 0 if nothing was recorded.
+     */
+    public long getPercentile(double fraction)
+    {
+        long values = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+            values += buckets.get(bucket);
+        long target = Math.max(1, (long) Math.ceil(fraction * values));
+
+        long counted = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+        {
+            counted += buckets.get(bucket);
+            if (counted >= target)
+                return Math.min(highestValue(bucket), getMax());
+        }
+        return 0;
+    }
+
+    /**
+     * Returns current values of histogram.
+     * @return summary of histogram.
+     */
+    public Summary getSummary()
+    {
+        return new Summary(name, unit, getCount(), getMean(), getPercentile(0.5), getPercentile(0.9),
+                getPercentile(0.99), getMax());
+    }
+
+    /**
+     * Removes all recorded values. Values recorded at the same time by other threads may be partly kept.
+     */
+    public void reset()
+    {
+        for (int bucket = 0; bucket < BUCKETS; bucket++)
+            buckets.set(bucket, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Finds bucket of value.
+     * @param value non-negative value.
+     * @return number of bucket.
+     */
+    static int bucket(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return (exponent - SUB_BITS) * SUB_BUCKETS + (int) (value >>> (exponent - SUB_BITS));
+    }
+
+    /**
+     * Returns the highest value which falls into bucket.
+     * @param bucket number of bucket.
+     * @return the highest value of bucket.
+     */
+    static long highestValue(int bucket)
+    {
+        if (bucket < 2 * SUB_BUCKETS)
+            return bucket;
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,276 @@
+package Mines.Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Metrics of the game, collected while it is played.
+ *
+ * Every measured operation is recorded in <code>Histogram</code> and emitted as JDK Flight Recorder event
+ * of category "Mines", so it can be seen in recordings next to garbage collections and other events of JVM.
+ * Events are created only when recording of them is enabled, e.g. by <code>-XX:StartFlightRecording</code>.
+ * Histograms can be read through JMX after <code>registerMBean</code> is called.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public final class Metrics
+{
+    public static final String OBJECT_NAME = "Mines:type=Metrics";
+
+    private static final Histogram clickLatency = new Histogram("Click latency", "ns");
+    private static final Histogram generationTime = new Histogram("Generation time", "ns");
+    private static final Histogram revealedCells = new Histogram("Cells revealed", "fields");
+    private static final Histogram highscoreIoTime = new Histogram("Highscore I/O time", "ns");
+
+    @Name("Mines.Click")
+    @Label("Click")
+    @Category("Mines")
+    static class ClickEvent extends Event
+    {
+        @Label("X")
+        int x;
+        @Label("Y")
+        int y;
+        @Label("Right Button")
+        boolean rightButton;
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+    }
+
+    @Name("Mines.Generation")
+    @Label("Board Generation")
+    @Category("Mines")
+    static class GenerationEvent extends Event
+    {
+        @Label("Height")
+        int height;
+        @Label("Width")
+        int width;
+        @Label("Mines")
+        int minesNumber;
+        @Label("Generation Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long generationTime;
+    }
+
+    @Name("Mines.Reveal")
+    @Label("Reveal")
+    @Category("Mines")
+    static class RevealEvent extends Event
+    {
+        @Label("X")
+        int x;
+        @Label("Y")
+        int y;
+        @Label("Cells Revealed")
+        int cells;
+    }
+
+    @Name("Mines.HighscoreIO")
+    @Label("Highscore I/O")
+    @Category("Mines")
+    static class HighscoreIoEvent extends Event
+    {
+        @Label("Operation")
+        String operation;
+        @Label("Records")
+        long records;
+        @Label("I/O Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long ioTime;
+    }
+
+    /**
+     * JMX view of metrics.
+     */
+    private static class MetricsBean implements MetricsMXBean
+    {
+        @Override
+        public Histogram.Summary getClickLatency()
+        {
+            return clickLatency.getSummary();
+        }
+
+        @Override
+        public Histogram.Summary getGenerationTime()
+        {
+            return generationTime.getSummary();
+        }
+
+        @Override
+        public Histogram.Summary getCellsRevealed()
+        {
+            return revealedCells.getSummary();
+        }
+
+        @Override
+        public Histogram.Summary getHighscoreIoTime()
+        {
+            return highscoreIoTime.getSummary();
+        }
+
+        @Override
+        public void reset()
+        {
+            clickLatency.reset();
+            generationTime.reset();
+            revealedCells.reset();
+            highscoreIoTime.reset();
+        }
+    }
+
+    private Metrics()
+    {
+    }
+
+    /**
+     * Registers metrics in platform MBean server under name <code>OBJECT_NAME</code>.
+     * Does nothing if they are registered already.
+     */
+    public static void registerMBean()
+    {
+        try
+        {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name))
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(), name);
+        }
+        catch (JMException e)
+        {
+            System.err.println("Could not register metrics");
+        }
+    }
+
+    /**
+     * Records click on field which has been handled and whose changed fields have been refreshed,
+     * i.e. painted on board drawn as single view, or given new icons on grid of buttons.
+     * @param x vertical position of clicked field (counting from 0).
+     * @param y horizontal position of clicked field (counting from 0).
+     * @param rightButton whether field was clicked with right button.
+     * @param startNanos value of <code>System.nanoTime</code> when mouse button was released.
+     */
+    public static void clickHandled(int x, int y, boolean rightButton, long startNanos)
+    {
+        long nanos = System.nanoTime() - startNanos;
+        clickLatency.record(nanos);
+
+        ClickEvent event = new ClickEvent();
+        if (event.isEnabled())
+        {
+            event.x = x;
+            event.y = y;
+            event.rightButton = rightButton;
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records generation of board of the player, i.e. setting its mines and numbers of nearby mines.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param startNanos value of <code>System.nanoTime</code> when generation started.
+     */
+    public static void boardGenerated(int height, int width, int minesNumber, long startNanos)
+    {
+        long nanos = System.nanoTime() - startNanos;
+        generationTime.record(nanos);
+
+        GenerationEvent event = new GenerationEvent();
+        if (event.isEnabled())
+        {
+            event.height = height;
+            event.width = width;
+            event.minesNumber = minesNumber;
+            event.generationTime = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records uncovering move of player.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @param cells number of fields uncovered by move.
+     */
+    public static void cellsRevealed(int x, int y, int cells)
+    {
+        revealedCells.record(cells);
+
+        RevealEvent event = new RevealEvent();
+        if (event.isEnabled())
+        {
+            event.x = x;
+            event.y = y;
+            event.cells = cells;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records reading or writing of highscores file.
+     * @param operation name of operation, e.g. "load" or "append".
+     * @param records number of records read or written.
+     * @param startNanos value of <code>System.nanoTime</code> when operation started.
+     */
+    public static void highscoreIo(String operation, long records, long startNanos)
+    {
+        long nanos = System.nanoTime() - startNanos;
+        highscoreIoTime.record(nanos);
+
+        HighscoreIoEvent event = new HighscoreIoEvent();
+        if (event.isEnabled())
+        {
+            event.operation = operation;
+            event.records = records;
+            event.ioTime = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns histogram of click latency.
+     * @return histogram of latency in nanoseconds.
+     */
+    public static Histogram getClickLatency()
+    {
+        return clickLatency;
+    }
+
+    /**
+     * Returns histogram of generation time of boards of the player.
+     * @return histogram of generation time in nanoseconds.
+     */
+    public static Histogram getGenerationTime()
+    {
+        return generationTime;
+    }
+
+    /**
+     * Returns histogram of numbers of fields uncovered by single uncovering move.
+     * @return histogram of revealed fields.
+     */
+    public static Histogram getCellsRevealed()
+    {
+        return revealedCells;
+    }
+
+    /**
+     * Returns histogram of time of reading and writing highscores file.
+     * @return histogram of highscores I/O time in nanoseconds.
+     */
+    public static Histogram getHighscoreIoTime()
+    {
+        return highscoreIoTime;
+    }
+}
@@ -0,0 +1,42 @@
+package Mines.Metrics;
+
+/**
+ * Management interface of game metrics, registered by <code>Metrics.registerMBean</code>
+ * under name <code>Metrics.OBJECT_NAME</code>, so it can be read by JConsole, VisualVM or Mission Control.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public interface MetricsMXBean
+{
+    /**
+     * Returns time from release of mouse button over field to the end of refresh of changed fields:
+     * to their painting on big boards drawn as single view, to setting icons of their buttons on smaller boards.
+     * Dialogs opened after the click, e.g. for name of player with highscore, aren't included.
+     * @return summary of click latency in nanoseconds.
+     */
+    Histogram.Summary getClickLatency();
+
+    /**
+     * Returns time of setting mines on board of the player, after the first click.
+     * @return summary of generation time in nanoseconds.
+     */
+    Histogram.Summary getGenerationTime();
+
+    /**
+     * Returns number of fields uncovered by single uncovering move of player.
+     * @return summary of revealed fields.
+     */
+    Histogram.Summary getCellsRevealed();
+
+    /**
+     * Returns time of reading and writing highscores file.
+     * @return summary of highscores I/O time in nanoseconds.
+     */
+    Histogram.Summary getHighscoreIoTime();
+
+    /**
+     * Removes all recorded values.
+     */
+    void reset();
+}
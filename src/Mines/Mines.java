@@ -1,11 +1,14 @@
 package Mines;
 
 import Mines.Controller.*;
+import Mines.Metrics.Metrics;
 import Mines.Model.Board;
 import Mines.View.GUI;
 
 /**
  * Main class that starts the game.
+ * Option <code>-seed number</code> starts the first game with board of given seed,
+ * otherwise game saved by autosave is resumed if there is one.
  *
  * TODO:
  * Reasonable images
@@ -14,9 +17,29 @@ public class Mines
 {
     public static void main(String[] args)
     {
+        Metrics.registerMBean();
         Board board = new Board();
         GUI gui = new GUI();
         Controller controller = new Controller(gui, board);
+        boolean seeded = false;
+        for (int counter = 0; counter + 1 < args.length; counter++)
+        {
+            if (args[counter].equals("-seed") || args[counter].equals("--seed"))
+            {
+                try
+                {
+                    controller.setNextSeed(Long.parseLong(args[counter + 1]));
+                    seeded = true;
+                }
+                catch (NumberFormatException e)
+                {
+                    System.err.println("Wrong seed: " + args[counter + 1]);
+                }
+            }
+        }
+        if (!seeded && controller.resumeGame())
+            return;
+
         try
         {
             controller.newGame(Controller.GameType.EXPERT);
@@ -0,0 +1,405 @@
+package Mines.Model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * Saves game in progress, so it can be resumed after the program is closed or killed.
+ *
+ * Game is kept in two files. Snapshot contains parameters and seed of board, bitmaps of mined, uncovered
+ * and flagged fields, time of the game and its <code>MoveLog</code>, so it takes about 3 bits per field.
+ * Journal contains moves made after snapshot, each in a 12-byte record with CRC32. Every move is appended
+ * to journal, and every <code>SNAPSHOT_INTERVAL</code> moves new snapshot is written to temporary file,
+ * atomically moved over the old one, and journal is truncated. Every snapshot gets random generation id,
+ * and journal starts with generation id and number of moves of its snapshot, so journal left
+ * by interrupted truncation, also of other game, is recognized and ignored.
+ * Undone move is saved as record of its own if the move is in journal, otherwise snapshot is written.
+ *
+ * Files are written by background thread in order of calls. State of board is copied in calling thread.
+ * Resuming builds board from bitmaps and applies moves from journal, damaged tail of journal is skipped.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class Autosave
+{
+    public static final String SNAPSHOT_FILE_NAME = "autosave.snap";
+    public static final String JOURNAL_FILE_NAME = "autosave.journal";
+    public static final int SNAPSHOT_INTERVAL = 64;
+
+    private static final int MAGIC = 0x4D534156;
+    private static final int VERSION = 2;
+    private static final int RECORD_SIZE = 12;
+    /* action of journal record of undone move, next to MoveLog actions */
+    private static final int UNDO = 3;
+
+    private File snapshotFile;
+    private File journalFile;
+    private int movesSinceSnapshot;
+    private int undoableMoves;
+    private long resumedTime;
+    private ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Autosave writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Creates autosave kept in default files.
+     */
+    public Autosave()
+    {
+        this(new File(SNAPSHOT_FILE_NAME), new File(JOURNAL_FILE_NAME));
+    }
+
+    /**
+     * Creates autosave kept in given files.
+     * @param snapshotFile file of snapshot.
+     * @param journalFile file of journal.
+     */
+    public Autosave(File snapshotFile, File journalFile)
+    {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Starts saving new game, writing its first snapshot.
+     * @param board board of the game.
+     * @param log log of moves of the game.
+     * @param time time of the game in milliseconds.
+     */
+    public void start(Board board, MoveLog log, long time)
+    {
+        saveSnapshot(board, log, time);
+    }
+
+    /**
+     * Saves move which has just been made and recorded in log. Every <code>SNAPSHOT_INTERVAL</code>
+     * moves snapshot is written instead.
+     * @param board board of the game, after the move.
+     * @param log log of moves of the game, containing the move.
+     * @param action one of <code>MoveLog</code> actions.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @param time time of the move since start of the game in milliseconds.
+     */
+    public void moveMade(Board board, MoveLog log, int action, int x, int y, long time)
+    {
+        if (++movesSinceSnapshot >= SNAPSHOT_INTERVAL)
+        {
+            saveSnapshot(board, log, time);
+            return;
+        }
+
+        undoableMoves++;
+        appendRecord((x * board.getWidth() + y) << 2 | action, time);
+    }
+
+    /**
+     * Saves that the last move was undone and removed from log. If the move was saved in journal,
+     * record of undo is appended, otherwise snapshot is written.
+     * @param board board of the game, after undo.
+     * @param log log of moves of the game, without undone move.
+     * @param time time of the game in milliseconds.
+     */
+    public void moveUndone(Board board, MoveLog log, long time)
+    {
+        if (undoableMoves == 0 || ++movesSinceSnapshot >= SNAPSHOT_INTERVAL)
+        {
+            saveSnapshot(board, log, time);
+            return;
+        }
+
+        undoableMoves--;
+        appendRecord(UNDO, time);
+    }
+
+    /**
+     * Removes saved game, e.g. when it is over.
+     */
+    public void clear()
+    {
+        movesSinceSnapshot = 0;
+        undoableMoves = 0;
+        writer.execute(() -> {
+            journalFile.delete();
+            snapshotFile.delete();
+        });
+    }
+
+    /**
+     * Waits until all scheduled writes are done.
+     */
+    public void flush()
+    {
+        try
+        {
+            writer.submit(() -> {}).get();
+        }
+        catch (Exception e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Resumes saved game in given session: board is built from snapshot and moves from journal are applied.
+     * @param session session in which game is resumed.
+     * @return log of moves of resumed game, or <code>null</code> if there is no saved game.
+     */
+    public MoveLog resume(GameSession session)
+    {
+        if (!snapshotFile.exists())
+            return null;
+
+        try
+        {
+            ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotFile.toPath()));
+            if (snapshot.getInt() != MAGIC || snapshot.getInt() != VERSION)
+                return null;
+
+            long generation = snapshot.getLong();
+            int height = snapshot.getInt();
+            int width = snapshot.getInt();
+            int minesNumber = snapshot.getInt();
+            long seed = snapshot.getLong();
+            resumedTime = snapshot.getLong();
+            int words = (height * width + 63) >>> 6;
+            long[] mines = readBitmap(snapshot, words);
+            long[] uncovered = readBitmap(snapshot, words);
+            long[] flagged = readBitmap(snapshot, words);
+            MoveLog log = MoveLog.readFrom(new DataInputStream(new ByteArrayInputStream(
+                    snapshot.array(), snapshot.position(), snapshot.remaining())));
+
+            Board board = new Board();
+            board.restore(height, width, minesNumber, seed, mines, uncovered, flagged);
+            session.newGame(board);
+            session.restore(board.isInitiated() ? GameSession.State.PLAYING : GameSession.State.READY,
+                    log.getMoveCount());
+            resumeJournal(session, log, generation);
+            board.clearChanges();
+            movesSinceSnapshot = 0;
+            undoableMoves = 0;
+            return session.isOver() ? null : log;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            System.err.println("Could not resume saved game");
+            return null;
+        }
+    }
+
+    /**
+     * Returns time of game resumed by last <code>resume</code>.
+     * @return time in milliseconds.
+     */
+    public long getResumedTime()
+    {
+        return resumedTime;
+    }
+
+    /**
+     * Applies moves from journal to resumed game and appends them to its log.
+     * Journal of other snapshot and damaged records are skipped.
+     * @param session session of resumed game.
+     * @param log log of moves of resumed game.
+     * @param generation generation id of snapshot.
+     * @throws IOException thrown if journal can't be read.
+     */
+    private void resumeJournal(GameSession session, MoveLog log, long generation) throws IOException
+    {
+        if (!journalFile.exists())
+            return;
+
+        ByteBuffer journal = ByteBuffer.wrap(Files.readAllBytes(journalFile.toPath()));
+        if (journal.remaining() < 12 || journal.getLong() != generation || journal.getInt() != log.getMoveCount())
+            return;
+
+        int width = session.getBoard().getWidth();
+        CRC32 crc = new CRC32();
+        while (journal.remaining() >= RECORD_SIZE)
+        {
+            crc.reset();
+            crc.update(journal.array(), journal.position(), 8);
+            int field = journal.getInt();
+            int time = journal.getInt();
+            if (journal.getInt() != (int) crc.getValue())
+                break;
+
+            int action = field & 3;
+            if (action == UNDO)
+            {
+                session.undo();
+                log.removeLast();
+                continue;
+            }
+
+            int x = (field >>> 2) / width;
+            int y = (field >>> 2) % width;
+            if (action == MoveLog.FLAG)
+                session.flag(x, y);
+            else if (action == MoveLog.CHORD)
+                session.chord(x, y);
+            else
+                session.reveal(x, y);
+            log.add(action, x, y, time);
+            resumedTime = Math.max(resumedTime, time);
+        }
+    }
+
+    /**
+     * Schedules appending record to journal.
+     * @param field index of field shifted left by two bits with action in the lowest bits.
+     * @param time time of the game in milliseconds.
+     */
+    private void appendRecord(int field, long time)
+    {
+        writer.execute(() -> {
+            try (DataOutputStream output = new DataOutputStream(new FileOutputStream(journalFile, true)))
+            {
+                ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+                record.putInt(field).putInt((int) time);
+                CRC32 crc = new CRC32();
+                crc.update(record.array(), 0, 8);
+                record.putInt((int) crc.getValue());
+                output.write(record.array());
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not save game");
+            }
+        });
+    }
+
+    /**
+     * Copies state of game in calling thread and schedules writing snapshot and truncating journal.
+     * @param board board of the game.
+     * @param log log of moves of the game.
+     * @param time time of the game in milliseconds.
+     */
+    private void saveSnapshot(Board board, MoveLog log, long time)
+    {
+        movesSinceSnapshot = 0;
+        undoableMoves = 0;
+        BoardSnapshot state = board.snapshot();
+        int moves = log.getMoveCount();
+        long generation = ThreadLocalRandom.current().nextLong();
+        ByteArrayOutputStream logBytes = new ByteArrayOutputStream(log.getByteSize() + 64);
+        try
+        {
+            log.writeTo(new DataOutputStream(logBytes));
+        }
+        catch (IOException e)
+        {
+            return;
+        }
+
+        writer.execute(() -> {
+            try
+            {
+                writeSnapshot(state, generation, time, logBytes);
+                try (DataOutputStream output = new DataOutputStream(new FileOutputStream(journalFile)))
+                {
+                    output.writeLong(generation);
+                    output.writeInt(moves);
+                }
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not save game");
+            }
+        });
+    }
+
+    /**
+     * Writes snapshot to temporary file which then atomically replaces snapshot file.
+     * @param state copy of board.
+     * @param generation generation id of snapshot, written also to journal.
+     * @param time time of the game in milliseconds.
+     * @param logBytes encoded log of moves.
+     * @throws IOException thrown if file can't be written.
+     */
+    private void writeSnapshot(BoardSnapshot state, long generation, long time, ByteArrayOutputStream logBytes)
+            throws IOException
+    {
+        int words = (state.fields.length + 63) >>> 6;
+        long[] mines = new long[words];
+        long[] uncovered = new long[words];
+        long[] flagged = new long[words];
+        for (int index = 0; index < state.fields.length; index++)
+        {
+            int field = state.fields[index];
+            long bit = 1L << index;
+            if ((field & Board.MINED) != 0)
+                mines[index >>> 6] |= bit;
+            if ((field & Board.UNCOVERED) != 0)
+                uncovered[index >>> 6] |= bit;
+            if ((field & Board.FLAGGED) != 0)
+                flagged[index >>> 6] |= bit;
+        }
+
+        File temporary = new File(snapshotFile.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary))
+        {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(generation);
+            output.writeInt(state.height);
+            output.writeInt(state.width);
+            output.writeInt(state.minesNumber);
+            output.writeLong(state.seed);
+            output.writeLong(time);
+            writeBitmap(output, mines);
+            writeBitmap(output, uncovered);
+            writeBitmap(output, flagged);
+            logBytes.writeTo(output);
+            output.flush();
+            stream.getFD().sync();
+        }
+
+        try
+        {
+            Files.move(temporary.toPath(), snapshotFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(temporary.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes bitmap as sequence of longs.
+     * @param output stream to write to.
+     * @param bitmap bitmap to write.
+     * @throws IOException thrown if stream can't be written.
+     */
+    private static void writeBitmap(DataOutputStream output, long[] bitmap) throws IOException
+    {
+        for (long word: bitmap)
+            output.writeLong(word);
+    }
+
+    /**
+     * Reads bitmap written by <code>writeBitmap</code>.
+     * @param input buffer to read from.
+     * @param words number of longs in bitmap.
+     * @return read bitmap.
+     */
+    private static long[] readBitmap(ByteBuffer input, int words)
+    {
+        long[] bitmap = new long[words];
+        input.asLongBuffer().get(bitmap);
+        input.position(input.position() + words * 8);
+        return bitmap;
+    }
+}
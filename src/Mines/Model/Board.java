@@ -1,7 +1,9 @@
 package Mines.Model;
 
-import java.awt.Point;
+import Mines.Metrics.Metrics;
+
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Created on 04.11.2015.
@@ -22,36 +24,70 @@ public class Board
     private int width;
     private int minesNumber;
 
-    private Field[][] board;
-    private Set<Point> minedFields;
+    /* Single field is packed into one byte of board: bits 0-3 keep number of nearby mines,
+       higher bits keep mined, flagged and uncovered state */
+    static final int NEARBY_MINES = 0x0F;
+    static final int MINED = 0x10;
+    static final int FLAGGED = 0x20;
+    static final int UNCOVERED = 0x40;
+
+    private byte[] board;
+    private int[] minedFields;
+    private CellList revealed = new CellList();
+    private CellList changes = new CellList();
 
     private int minesLeft;
+    private int coveredSafeFields;
     private boolean initiated = false;
-    private Random rand = new Random();
+    private int safeRadius = 1;
+    private long seed;
+    /* field clicked first, -1 if board isn't initiated */
+    private int firstField = -1;
+    /* board of the same game initiated in advance, whose mines are taken at the first click */
+    private Board prepared;
+    /* whether time of setting mines is recorded in metrics */
+    private boolean measured;
+    /* step of undo history recording fields changed by current move, null if moves aren't recorded */
+    UndoHistory.Step recording;
 
     /**
      * Creates board with parameters given to function and initiates board with empty fields,
-     * which are to be filled later.
+     * which are to be filled later. Seed of the board is chosen randomly.
      * @param height height of board.
      * @param width width of board.
      * @param minesNumber number of mines in the board.
      */
     public void newGame(int height, int width, int minesNumber) {
+        newGame(height, width, minesNumber, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates board with parameters given to function and initiates board with empty fields,
+     * which are to be filled later. Seed, together with first clicked field and safe radius,
+     * fully determines positions of mines, so the same board can be played again.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param seed seed of random generator used to set mines.
+     */
+    public void newGame(int height, int width, int minesNumber, long seed) {
+        this.seed = seed;
         this.height = height;
         this.width = width;
         this.minesNumber = minesNumber;
         this.minesLeft = minesNumber;
-        this.minedFields = new HashSet<>(minesNumber);
-        this.board = new Field[height][width];
+        this.coveredSafeFields = height * width - minesNumber;
+        /* arrays of previous game are reused when board has the same size */
+        if (minedFields == null || minedFields.length != minesNumber)
+            this.minedFields = new int[minesNumber];
+        if (board == null || board.length != height * width)
+            this.board = new byte[height * width];
+        else
+            Arrays.fill(board, (byte)0);
+        changes.clear();
         initiated = false;
-
-        for (int x = 0; x < height; x++)
-        {
-            for (int y = 0; y < width; y++)
-            {
-                board[x][y] = new Field();
-            }
-        }
+        firstField = -1;
+        prepared = null;
     }
 
 
@@ -60,92 +96,270 @@ public class Board
      * Function gets point which was first point clicked and does not set any mine in this field
      * or around it.
      * It returns without doing any changes if field was initiated before.
-     * @param startField point clicked as first.
+     * If board prepared by <code>setPrepared</code> was initiated with the same first click,
+     * its mines are taken instead of being set again.
+     * @param startX vertical position of field clicked as first (counting from 0).
+     * @param startY horizontal position of field clicked as first (counting from 0).
      */
-    public void initiateBoard(Point startField)
+    public void initiateBoard(int startX, int startY)
     {
         if(initiated)
             return;
 
-        randomizePoints(minesNumber, startField);
-        initializeBoard();
+        if (recording != null)
+            recording.initiated = true;
+        if (isPreparedFor(index(startX, startY)))
+        {
+            takePrepared();
+        }
+        else
+        {
+            long start = System.nanoTime();
+            initializeBoard(randomizePoints(minesNumber, startX, startY));
+            if (measured)
+                Metrics.boardGenerated(height, width, minesNumber, start);
+        }
+        prepared = null;
+        firstField = index(startX, startY);
         initiated = true;
     }
 
+    /**
+     * Sets board of the same size, number of mines and seed, initiated in advance, e.g. on background thread,
+     * so that the first click doesn't have to set mines. Prepared board is used only if it was initiated
+     * with the same first click, and it mustn't be used afterwards.
+     * @param prepared initiated board, not played.
+     */
+    public void setPrepared(Board prepared)
+    {
+        this.prepared = prepared;
+    }
+
+    /**
+     * Sets whether time of setting mines is recorded in metrics. Only board of the player should be measured,
+     * not boards of simulations, replays or candidates of no-guess boards. Setting is kept in next games.
+     * @param measured <code>true</code> to record generation time.
+     */
+    public void setMeasured(boolean measured)
+    {
+        this.measured = measured;
+    }
+
+    /**
+     * Checks whether prepared board can be taken as board of this game initiated from given field.
+     * @param start index of field clicked as first.
+     * @return <code>true</code> if prepared board has the same game and first click.
+     */
+    private boolean isPreparedFor(int start)
+    {
+        return prepared != null && prepared.initiated && prepared.firstField == start && prepared.seed == seed
+                && prepared.height == height && prepared.width == width && prepared.minesNumber == minesNumber
+                && prepared.safeRadius == safeRadius;
+    }
+
+    /**
+     * Takes arrays of prepared board, which already have mines and numbers of nearby mines set.
+     * Arrays are swapped, so only flags set before the first click have to be copied.
+     */
+    private void takePrepared()
+    {
+        byte[] fields = prepared.board;
+        if (minesLeft != minesNumber)
+        {
+            for (int index = 0; index < board.length; index++)
+                fields[index] |= board[index] & FLAGGED;
+        }
+        prepared.board = board;
+        board = fields;
+
+        int[] mined = prepared.minedFields;
+        prepared.minedFields = minedFields;
+        minedFields = mined;
+    }
+
+    /**
+     * Checks whether mines have already been set on the board.
+     * @return <code>true</code> if board was initiated or <code>false</code> otherwise.
+     */
+    public boolean isInitiated()
+    {
+        return initiated;
+    }
+
+    /**
+     * Sets radius of square around first clicked field in which no mine is set.
+     * Radius 0 protects only clicked field, radius 1 its neighbourhood and so on.
+     * If there is not enough fields outside of that square for all mines, radius is decreased.
+     * @param safeRadius radius of safe square.
+     */
+    public void setSafeRadius(int safeRadius)
+    {
+        this.safeRadius = Math.max(0, safeRadius);
+    }
+
     /**
      * Function randomizes set of points in which mines will be set.
-     * Randomized points cannot be outside the board or in point given as parameter.
+     * Randomized points cannot be outside the board or in square of <code>safeRadius</code>
+     * around point given as parameter.
+     *
+     * Fields which can be mined are numbered from 0 to <code>candidates - 1</code> and mines are drawn
+     * with Floyd's variant of partial Fisher-Yates shuffle, which takes exactly one random number per mine.
+     * Drawn fields are marked in bitmap indexed like the board, which is small enough
+     * to be checked quickly even for huge boards.
      * @param minesNumber number of mines to randomize.
-     * @param startField point in and around which shouldn't be any mine.
+     * @param startX vertical position of field in and around which shouldn't be any mine.
+     * @param startY horizontal position of field in and around which shouldn't be any mine.
+     * @return bitmap of mined fields, bit <code>index % 64</code> of word <code>index / 64</code>
+     * is set if field with given index is mined.
      */
-    private void randomizePoints (int minesNumber, Point startField)
+    private long[] randomizePoints (int minesNumber, int startX, int startY)
     {
-        Point minedPoint;
-        for (int counter = 0; counter < minesNumber; counter++)
+        SplittableRandom rand = new SplittableRandom(seed);
+        long[] mineMap = new long[(height * width + 63) >>> 6];
+        int radius = safeRadius;
+        while (radius > 0 && height * width - safeZoneSize(startX, startY, radius) < minesNumber)
+            radius--;
+
+        int top = Math.max(0, startX - radius);
+        int bottom = Math.min(height - 1, startX + radius);
+        int left = Math.max(0, startY - radius);
+        int right = Math.min(width - 1, startY + radius);
+        int zoneWidth = right - left + 1;
+        int[] replacement = new int[safeZoneSize(startX, startY, radius)];
+        int candidates = height * width - replacement.length;
+
+        /* safe fields with number below candidates are replaced by not safe fields numbered above */
+        int free = candidates;
+        for (int x = top; x <= bottom; x++)
         {
-            do
+            for (int y = left; y <= right; y++)
             {
-                minedPoint = new Point(rand.nextInt(height), rand.nextInt(width));
+                if (index(x, y) >= candidates)
+                    continue;
+
+                while (isInZone(free, top, bottom, left, right))
+                    free++;
+                replacement[(x - top) * zoneWidth + y - left] = free++;
             }
-            while (minedFields.contains(minedPoint) || minedPoint.equals(startField));
-            minedFields.add(minedPoint);
         }
 
-        if (minedFields.size() != minesNumber)
+        for (int drawn = candidates - minesNumber; drawn < candidates; drawn++)
         {
-            System.err.println("Wrong number of minedPoints in set");
+            int index = rand.nextInt(drawn + 1);
+            if (isInZone(index, top, bottom, left, right))
+                index = replacement[(index / width - top) * zoneWidth + index % width - left];
+            if ((mineMap[index >>> 6] & 1L << index) != 0)
+            {
+                index = drawn;
+                if (isInZone(index, top, bottom, left, right))
+                    index = replacement[(index / width - top) * zoneWidth + index % width - left];
+            }
+            mineMap[index >>> 6] |= 1L << index;
         }
+        return mineMap;
     }
 
     /**
-     * Function iterates through board initializing each field.
+     * Counts fields of board in square of given radius around given point.
+     * @param centerX vertical position of center of square.
+     * @param centerY horizontal position of center of square.
+     * @param radius radius of square.
+     * @return number of fields in square that are inside the board.
      */
-    private void initializeBoard()
+    private int safeZoneSize(int centerX, int centerY, int radius)
     {
-        for (int x = 0; x < height; x++)
+        int rows = Math.min(height - 1, centerX + radius) - Math.max(0, centerX - radius) + 1;
+        int columns = Math.min(width - 1, centerY + radius) - Math.max(0, centerY - radius) + 1;
+        return rows * columns;
+    }
+
+    /**
+     * Checks if field with given index lies in given rectangle.
+     * @param index index of field.
+     * @param top first row of rectangle.
+     * @param bottom last row of rectangle.
+     * @param left first column of rectangle.
+     * @param right last column of rectangle.
+     * @return <code>true</code> if field is in rectangle or <code>false</code> otherwise.
+     */
+    private boolean isInZone(int index, int top, int bottom, int left, int right)
+    {
+        if (index < top * width + left || index > bottom * width + right)
+            return false;
+
+        int x = index / width;
+        int y = index % width;
+        return x >= top && x <= bottom && y >= left && y <= right;
+    }
+
+    /**
+     * Function sets mined fields and number of nearby mines in one pass over bitmap of mines.
+     * Mines are visited in order of their indices and counter of every field around each of them
+     * is incremented, so board is accessed sequentially and time is proportional to number of mines
+     * plus size of bitmap, which is 64 times smaller than board. Counters of mined fields
+     * are cleared afterwards.
+     * @param mineMap bitmap of mined fields returned by <code>randomizePoints</code>.
+     */
+    private void initializeBoard(long[] mineMap)
+    {
+        int counter = 0;
+        int x = 0;
+        int row = 0;
+        for (int word = 0; word < mineMap.length; word++)
         {
-            for (int y = 0; y < width; y++)
+            for (long bits = mineMap[word]; bits != 0; bits &= bits - 1)
             {
-                initializeField(new Point(x, y));
+                int index = word << 6 | Long.numberOfTrailingZeros(bits);
+                while (index >= row + width)
+                {
+                    row += width;
+                    x++;
+                }
+                int y = index - row;
+
+                board[index] |= MINED;
+                minedFields[counter++] = index;
+
+                if (x > 0 && x < height - 1 && y > 0 && y < width - 1)
+                {
+                    board[index - width - 1]++;
+                    board[index - width]++;
+                    board[index - width + 1]++;
+                    board[index - 1]++;
+                    board[index + 1]++;
+                    board[index + width - 1]++;
+                    board[index + width]++;
+                    board[index + width + 1]++;
+                }
+                else
+                {
+                    incrementAround(x, y);
+                }
             }
         }
+
+        for (int mined: minedFields)
+            board[mined] &= ~NEARBY_MINES;
     }
 
     /**
-     * Function initializes field in point given as parameter.
-     * It checks whether field should be mined.
-     * If so it sets field's mined flag.
-     * If not it counts mines around and sets field's value.
-     * @param point point in which is initiated field.
+     * Increments counter of nearby mines of every field around given point that lies inside the board.
+     * @param posX vertical position of field (counting from 0).
+     * @param posY horizontal position of field (counting from 0).
      */
-    private void initializeField(Point point) {
-        int nearbyMinesCounter = 0;
-
-        if (minedFields.contains(point))
-        {
-            board[point.x][point.y].setMined(true);
-            board[point.x][point.y].setNearbyMines(0);
-            return;
-        }
-        else
+    private void incrementAround(int posX, int posY)
+    {
+        for (int x = posX - 1; x <= posX + 1; x++)
         {
-            for (int x = point.x - 1; x <= point.x + 1; x++) //iterates through square around field
+            if (x < 0 || x >= height)
+                continue;
+            for (int y = posY - 1; y <= posY + 1; y++)
             {
-                if (x < 0 || x > height) //if x is beyond the map
+                if (y < 0 || y >= width || (x == posX && y == posY))
                     continue;
-                for (int y = point.y - 1; y <= point.y + 1; y++)
-                {
-                    if (y < 0 || y > width) //if y is beyond map
-                        continue;
-
-                    if (minedFields.contains(new Point(x, y)))
-                        nearbyMinesCounter++;
-                }
 
+                board[index(x, y)]++;
             }
-
-            board[point.x][point.y].setMined(false);
-            board[point.x][point.y].setNearbyMines(nearbyMinesCounter);
         }
     }
 
@@ -156,16 +370,20 @@ public class Board
      */
     public void toggleFlag(int x, int y)
     {
-        if (board[x][y].isUncovered())
+        int index = index(x, y);
+        if (has(index, UNCOVERED))
             return;
 
-        if (board[x][y].toggleFlag())
+        save(index);
+        board[index] ^= FLAGGED;
+        changes.add(index);
+        if (has(index, FLAGGED))
         {
-            minesLeft++;
+            minesLeft--;
         }
         else
         {
-            minesLeft--;
+            minesLeft++;
         }
     }
 
@@ -173,6 +391,7 @@ public class Board
     /**
      * Method checks if field in given point is uncovered and has exact same number
      * of flags and mines around. If so uncovers not flagged fields around this field.
+     * Fields uncovered by method can be read from <code>getRevealed</code>.
      * @param posX vertical position of field (counting from 0).
      * @param posY  horizontal position of field (counting from 0).
      * @return <code> true </code> if there was not flagged, mined field uncovered.
@@ -180,9 +399,29 @@ public class Board
      */
     public boolean uncoverAround(int posX, int posY)
     {
-        if (board[posX][posY].getNearbyMines() != 0 && !checkFlags(posX, posY))
+        revealed.clear();
+        if (!initiated)
             return false;
 
+        boolean mineUncovered = revealAround(posX, posY);
+        changes.addAll(revealed);
+        return mineUncovered;
+    }
+
+    /**
+     * Uncovers not flagged fields around field in given point if number of flags around
+     * is equal to number of mines around.
+     * @param posX vertical position of field (counting from 0).
+     * @param posY  horizontal position of field (counting from 0).
+     * @return <code> true </code> if there was not flagged, mined field uncovered.
+     * <code> false </code> if everything is ok.
+     */
+    private boolean revealAround(int posX, int posY)
+    {
+        if (getNearbyMines(posX, posY) != 0 && !checkFlags(posX, posY))
+            return false;
+
+        boolean mineUncovered = false;
         for (int x = posX - 1; x <= posX + 1; x++)
         {
             if (x < 0 || x >= height)
@@ -192,14 +431,12 @@ public class Board
                 if (y < 0 || y >= width)
                     continue;
 
-                if(!board[x][y].isUncovered())
-                    uncover(x, y);
-
-                if (board[x][y].isMined() && !board[x][y].isFlagged())
-                    return true;
+                int index = index(x, y);
+                if ((board[index] & (UNCOVERED | FLAGGED)) == 0 && reveal(index))
+                    mineUncovered = true;
             }
         }
-        return false;
+        return mineUncovered;
     }
 
 
@@ -224,12 +461,12 @@ public class Board
                 if (y < 0 || y >= width)
                     continue;
 
-                if (board[x][y].isFlagged())
+                if (isFlagged(x, y))
                     flagNumber++;
             }
         }
 
-        if (!board[posX][posY].isUncovered() || flagNumber != board[posX][posY].getNearbyMines())
+        if (!isUncovered(posX, posY) || flagNumber != getNearbyMines(posX, posY))
             return false;
         else
             return true;
@@ -237,32 +474,145 @@ public class Board
 
     /**
      * Uncovers field in given point and if it doesn't have any mine around
-     * uncovers all fields around. (Method can be recursive).
+     * uncovers all fields around, until whole region of empty fields and its border is uncovered.
+     * If field was uncovered before, fields around it are uncovered like in <code>uncoverAround</code>.
+     * Fields uncovered by method can be read from <code>getRevealed</code>.
      * @param x vertical position of field (counting from 0).
      * @param y horizontal position of field (counting from 0).
      * @return <code>true</code> if uncovered field was mined or <code>false</code> otherwise.
      */
     public boolean uncover (int x, int y)
     {
-        initiateBoard(new Point(x, y));
-        if (board[x][y].isFlagged())
+        initiateBoard(x, y);
+        revealed.clear();
+        int index = index(x, y);
+        if (has(index, FLAGGED))
             return false;
 
-        if (board[x][y].uncover())
-        {
-            return uncoverAround(x, y);
-        }
-        else if (board[x][y].isMined())
-        {
+        boolean mineUncovered;
+        if (has(index, UNCOVERED))
+            mineUncovered = revealAround(x, y);
+        else
+            mineUncovered = reveal(index);
+
+        changes.addAll(revealed);
+        return mineUncovered;
+    }
+
+    /**
+     * Uncovers covered field with given index. If field doesn't have any mine around, it uncovers
+     * region of empty fields it belongs to, using list of revealed fields as a queue of fields
+     * whose neighbours are still to be checked. Every field is checked once, so time
+     * is proportional to the size of uncovered region.
+     * @param start index of covered, not flagged field.
+     * @return <code>true</code> if uncovered field was mined or <code>false</code> otherwise.
+     */
+    private boolean reveal(int start)
+    {
+        int first = revealed.size();
+        int next = first;
+        save(start);
+        board[start] |= UNCOVERED;
+        revealed.add(start);
+        if (has(start, MINED))
             return true;
-        }
-        else if (board[x][y].getNearbyMines() == 0)
+
+        while (next < revealed.size())
         {
-            uncoverAround(x, y);
+            int index = revealed.get(next++);
+            if ((board[index] & NEARBY_MINES) != 0)
+                continue;
+
+            int posX = index / width;
+            int posY = index % width;
+            for (int x = posX - 1; x <= posX + 1; x++)
+            {
+                if (x < 0 || x >= height)
+                    continue;
+                for (int y = posY - 1; y <= posY + 1; y++)
+                {
+                    if (y < 0 || y >= width)
+                        continue;
+
+                    int neighbour = index(x, y);
+                    if ((board[neighbour] & (UNCOVERED | FLAGGED)) == 0)
+                    {
+                        save(neighbour);
+                        board[neighbour] |= UNCOVERED;
+                        revealed.add(neighbour);
+                    }
+                }
+            }
         }
+        coveredSafeFields -= revealed.size() - first;
         return false;
     }
 
+    /**
+     * Returns list of fields uncovered by last call of <code>uncover</code> or <code>uncoverAround</code>.
+     * List is reused by board, so it is valid until next of these calls.
+     * @return list of uncovered fields' indices.
+     */
+    public CellList getRevealed()
+    {
+        return revealed;
+    }
+
+    /**
+     * Returns list of fields whose state changed since last call of <code>clearChanges</code>
+     * or start of the game. It contains fields uncovered by <code>uncover</code>, <code>uncoverAround</code>
+     * and <code>showAllMined</code> and fields whose flag was toggled. A field can appear more than once.
+     * @return list of changed fields' indices.
+     */
+    public CellList getChanges()
+    {
+        return changes;
+    }
+
+    /**
+     * Clears list of changed fields, usually after view has been refreshed.
+     */
+    public void clearChanges()
+    {
+        changes.clear();
+    }
+
+    /**
+     * Returns seed from which mines of the board are set.
+     * @return seed of the board.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Returns height of board.
+     * @return number of rows.
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns width of board.
+     * @return number of columns.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns number of mines in the board.
+     * @return number of mines.
+     */
+    public int getMinesNumber()
+    {
+        return minesNumber;
+    }
+
     /**
      * Checks if field in given point has mine.
      * @param x vertical position of field (counting from 0).
@@ -271,7 +621,7 @@ public class Board
      */
     public boolean isMined(int x, int y)
     {
-        return board[x][y].isMined();
+        return has(index(x, y), MINED);
     }
 
     /**
@@ -282,7 +632,7 @@ public class Board
      */
     public int getNearbyMines (int x, int y)
     {
-        return board[x][y].getNearbyMines();
+        return board[index(x, y)] & NEARBY_MINES;
     }
 
     /**
@@ -293,7 +643,7 @@ public class Board
      */
     public boolean isUncovered (int x, int y)
     {
-        return board[x][y].isUncovered();
+        return has(index(x, y), UNCOVERED);
     }
 
     /**
@@ -304,23 +654,26 @@ public class Board
      */
     public boolean isFlagged (int x, int y)
     {
-        return board[x][y].isFlagged();
+        return has(index(x, y), FLAGGED);
     }
 
     /**
      * Function checks whether all non-mined fields are uncovered.
-     * Function breaks when found any non-mined not uncovered field.
+     * Board counts covered non-mined fields while uncovering them, so check takes constant time.
      * @return <code>true</code> when all non-mined fields are uncovered or <code>false</code> otherwise.
      */
     public boolean isGameWon()
     {
-        for (int x = 0; x < height; x++) {
-            for (int y = 0; y < width; y++) {
-                if (!board[x][y].isUncovered() && !board[x][y].isMined())
-                    return false;
-            }
-        }
-        return true;
+        return coveredSafeFields == 0;
+    }
+
+    /**
+     * Returns number of non-mined fields which are still covered.
+     * @return number of covered non-mined fields.
+     */
+    public int getCoveredSafeFields()
+    {
+        return coveredSafeFields;
     }
 
     /**
@@ -332,7 +685,150 @@ public class Board
     }
 
     public void showAllMined() {
-        for (Point mined: minedFields)
-            board[mined.x][mined.y].uncover();
+        if (!initiated)
+            return;
+
+        for (int mined: minedFields)
+        {
+            if (has(mined, UNCOVERED))
+                continue;
+
+            save(mined);
+            board[mined] |= UNCOVERED;
+            changes.add(mined);
+        }
+    }
+
+    /**
+     * Copies state of the board, so it can be brought back later by <code>restore</code>.
+     * Copy takes one byte per field.
+     * @return snapshot of the board.
+     */
+    public BoardSnapshot snapshot()
+    {
+        return new BoardSnapshot(height, width, minesNumber, seed, board.clone(), minesLeft,
+                coveredSafeFields, initiated);
+    }
+
+    /**
+     * Brings back state of the board from snapshot. Arrays are reused if board has the same size.
+     * List of changes is cleared, so view should refresh whole board.
+     * @param snapshot snapshot made by <code>snapshot</code>.
+     */
+    public void restore(BoardSnapshot snapshot)
+    {
+        newGame(snapshot.height, snapshot.width, snapshot.minesNumber, snapshot.seed);
+        System.arraycopy(snapshot.fields, 0, board, 0, board.length);
+        minesLeft = snapshot.minesLeft;
+        coveredSafeFields = snapshot.coveredSafeFields;
+        initiated = snapshot.initiated;
+        revealed.clear();
+
+        if (initiated)
+        {
+            int counter = 0;
+            for (int index = 0; index < board.length; index++)
+                if (has(index, MINED))
+                    minedFields[counter++] = index;
+        }
+    }
+
+    /**
+     * Brings back state of the board from bitmaps of mined, uncovered and flagged fields,
+     * in which bit <code>index % 64</code> of word <code>index / 64</code> is set for field of given index.
+     * Numbers of nearby mines are counted again, like when board is initiated.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board, equal to number of bits set in <code>mines</code>.
+     * @param seed seed of the board.
+     * @param mines bitmap of mined fields, empty if board wasn't initiated.
+     * @param uncovered bitmap of uncovered fields.
+     * @param flagged bitmap of flagged fields.
+     */
+    void restore(int height, int width, int minesNumber, long seed, long[] mines, long[] uncovered, long[] flagged)
+    {
+        newGame(height, width, minesNumber, seed);
+        int mined = 0;
+        for (long word: mines)
+            mined += Long.bitCount(word);
+        initiated = mined > 0;
+        if (initiated)
+            initializeBoard(mines);
+
+        for (int index = 0; index < board.length; index++)
+        {
+            long bit = 1L << index;
+            if ((uncovered[index >>> 6] & bit) != 0)
+            {
+                board[index] |= UNCOVERED;
+                if (!has(index, MINED))
+                    coveredSafeFields--;
+            }
+            else if ((flagged[index >>> 6] & bit) != 0)
+            {
+                board[index] |= FLAGGED;
+                minesLeft--;
+            }
+        }
+    }
+
+    /**
+     * Brings back fields changed by move, recorded by undo history, in reverse order of changes.
+     * Restored fields are added to list of changes. If move initiated the board, mines and numbers
+     * of nearby mines are removed from all fields, so the first uncover sets them again.
+     * @param fields indices of changed fields.
+     * @param before bytes of changed fields from before the move.
+     * @param minesLeft number of mines minus number of flags before the move.
+     * @param coveredSafeFields number of covered non-mined fields before the move.
+     * @param initiating whether move initiated the board.
+     */
+    void undo(CellList fields, byte[] before, int minesLeft, int coveredSafeFields, boolean initiating)
+    {
+        for (int position = fields.size() - 1; position >= 0; position--)
+            board[fields.get(position)] = before[position];
+        changes.addAll(fields);
+        this.minesLeft = minesLeft;
+        this.coveredSafeFields = coveredSafeFields;
+        revealed.clear();
+
+        if (initiating)
+        {
+            for (int index = 0; index < board.length; index++)
+                board[index] &= FLAGGED;
+            initiated = false;
+            firstField = -1;
+        }
+    }
+
+    /**
+     * Saves field which is about to be changed in step of undo history, if move is recorded.
+     * @param index index of field in board array.
+     */
+    private void save(int index)
+    {
+        if (recording != null)
+            recording.save(index, board[index]);
+    }
+
+    /**
+     * Converts position of field to its index in packed board array.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @return index of field in board array.
+     */
+    private int index(int x, int y)
+    {
+        return x * width + y;
+    }
+
+    /**
+     * Checks if field with given index has all given state bits set.
+     * @param index index of field in board array.
+     * @param bits state bits to check.
+     * @return <code>true</code> if all bits are set or <code>false</code> otherwise.
+     */
+    private boolean has(int index, int bits)
+    {
+        return (board[index] & bits) == bits;
     }
 }
@@ -0,0 +1,151 @@
+package Mines.Model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Prepares boards for next games on a background thread, so that new game doesn't wait for them.
+ *
+ * Factory keeps a bounded queue of ready boards for every combination of size and number of mines,
+ * for at most <code>MAX_SIZES</code> combinations used most recently. Taking a board schedules preparation
+ * of another one of the same kind. Prepared board has its arrays
+ * allocated and random seed chosen, but mines are placed only at the first click, because their layout
+ * depends on the first uncovered field.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class BoardFactory
+{
+    public static final int BOARDS_PER_SIZE = 2;
+    public static final int MAX_SIZES = 4;
+
+    /* queues in order of use, the least recently used one is removed when there are too many */
+    private Map<String, BlockingQueue<Board>> ready = Collections.synchronizedMap(
+            new LinkedHashMap<String, BlockingQueue<Board>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BlockingQueue<Board>> eldest) {
+                    return size() > MAX_SIZES;
+                }
+            });
+    private ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Board factory");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * Returns board ready for new game with random seed. Board is created in calling thread
+     * if none is prepared, and preparation of the next board is scheduled.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @return board of new game.
+     */
+    public Board takeBoard(int height, int width, int minesNumber)
+    {
+        Board board = queue(height, width, minesNumber).poll();
+        if (board == null)
+        {
+            board = new Board();
+            board.newGame(height, width, minesNumber);
+        }
+        prefetch(height, width, minesNumber);
+        return board;
+    }
+
+    /**
+     * Returns board ready for new game with given seed. Prepared board is used if there is any,
+     * so that its arrays don't have to be allocated. Like <code>takeBoard</code> with random seed,
+     * it consumes one prepared board and schedules preparation of another one, so it should be used
+     * only for board of new game, not for temporary boards.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param seed seed of the board.
+     * @return board of new game.
+     */
+    public Board takeBoard(int height, int width, int minesNumber, long seed)
+    {
+        Board board = takeBoard(height, width, minesNumber);
+        board.newGame(height, width, minesNumber, seed);
+        return board;
+    }
+
+    /**
+     * Schedules preparation of boards with given parameters until their queue is full.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     */
+    public void prefetch(int height, int width, int minesNumber)
+    {
+        BlockingQueue<Board> queue = queue(height, width, minesNumber);
+        if (queue.remainingCapacity() == 0 || executor.isShutdown())
+            return;
+
+        executor.execute(() -> {
+            while (queue.remainingCapacity() > 0)
+            {
+                Board board = new Board();
+                board.newGame(height, width, minesNumber);
+                if (!queue.offer(board))
+                    break;
+            }
+        });
+    }
+
+    /**
+     * Gives back board which is no longer used, e.g. board whose arrays were taken by other board
+     * at the first click. Board is cleared on background thread and kept for next game
+     * if queue of its size isn't full, so its arrays don't have to be allocated again.
+     * @param board board which mustn't be used afterwards by caller.
+     */
+    public void returnBoard(Board board)
+    {
+        BlockingQueue<Board> queue = queue(board.getHeight(), board.getWidth(), board.getMinesNumber());
+        if (queue.remainingCapacity() == 0 || executor.isShutdown())
+            return;
+
+        executor.execute(() -> {
+            board.newGame(board.getHeight(), board.getWidth(), board.getMinesNumber());
+            queue.offer(board);
+        });
+    }
+
+    /**
+     * Returns number of prepared boards with given parameters.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @return number of ready boards.
+     */
+    public int getReadyCount(int height, int width, int minesNumber)
+    {
+        return queue(height, width, minesNumber).size();
+    }
+
+    /**
+     * Stops background thread. Boards can still be taken, but are created in calling thread.
+     */
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns queue of boards with given parameters, creating it if necessary.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @return queue of ready boards.
+     */
+    private BlockingQueue<Board> queue(int height, int width, int minesNumber)
+    {
+        String key = height + "x" + width + ":" + minesNumber;
+        return ready.computeIfAbsent(key, size -> new ArrayBlockingQueue<>(BOARDS_PER_SIZE));
+    }
+}
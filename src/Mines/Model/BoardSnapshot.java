@@ -0,0 +1,42 @@
+package Mines.Model;
+
+/**
+ * Copy of state of <code>Board</code>, made by <code>Board.snapshot</code> and brought back
+ * by <code>Board.restore</code>. Snapshot can be restored many times and isn't changed by the board.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class BoardSnapshot
+{
+    final int height;
+    final int width;
+    final int minesNumber;
+    final long seed;
+    final byte[] fields;
+    final int minesLeft;
+    final int coveredSafeFields;
+    final boolean initiated;
+
+    BoardSnapshot(int height, int width, int minesNumber, long seed, byte[] fields, int minesLeft,
+                  int coveredSafeFields, boolean initiated)
+    {
+        this.height = height;
+        this.width = width;
+        this.minesNumber = minesNumber;
+        this.seed = seed;
+        this.fields = fields;
+        this.minesLeft = minesLeft;
+        this.coveredSafeFields = coveredSafeFields;
+        this.initiated = initiated;
+    }
+
+    /**
+     * Returns seed of board in snapshot.
+     * @return seed of the board.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+}
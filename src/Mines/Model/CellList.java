@@ -0,0 +1,77 @@
+package Mines.Model;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of fields' indices, used by board to report which fields were changed by an operation.
+ * Field in point (x, y) has index <code>x * width + y</code>.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class CellList
+{
+    private int[] cells = new int[16];
+    private int size;
+
+    /**
+     * Appends index of field to the end of list.
+     * @param cell index of field.
+     */
+    void add(int cell)
+    {
+        if (size == cells.length)
+            cells = Arrays.copyOf(cells, size * 2);
+        cells[size++] = cell;
+    }
+
+    /**
+     * Appends all indices from other list to the end of list.
+     * @param other list to copy indices from.
+     */
+    void addAll(CellList other)
+    {
+        if (size + other.size > cells.length)
+            cells = Arrays.copyOf(cells, Math.max(size + other.size, size * 2));
+        System.arraycopy(other.cells, 0, cells, size, other.size);
+        size += other.size;
+    }
+
+    /**
+     * Removes all indices from list. Memory allocated by list is kept to be reused.
+     */
+    void clear()
+    {
+        size = 0;
+    }
+
+    /**
+     * Returns number of fields in list.
+     * @return number of fields.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Returns index of field at given position of list.
+     * @param position position in list (counting from 0).
+     * @return index of field.
+     */
+    public int get(int position)
+    {
+        if (position >= size)
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + size);
+        return cells[position];
+    }
+
+    /**
+     * Copies indices of all fields in list to new array.
+     * @return array of fields' indices.
+     */
+    public int[] toArray()
+    {
+        return Arrays.copyOf(cells, size);
+    }
+}
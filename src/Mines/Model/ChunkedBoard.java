@@ -0,0 +1,493 @@
+package Mines.Model;
+
+import java.util.*;
+
+import static Mines.Model.Board.*;
+
+/**
+ * Class represents unbounded board of fields in Minesweeper-like game.
+ *
+ * Board is split into square chunks of <code>CHUNK_SIZE</code> fields. Mines of a chunk are generated
+ * from seed of the board and coordinates of the chunk when the chunk is touched for the first time,
+ * so the same seed and first click always give the same board, no matter in which order it is explored.
+ * Chunks are kept in a map, so memory used by board depends only on explored area.
+ * Fields are packed into bytes the same way as in <code>Board</code>.
+ *
+ * Coordinates can be negative. First uncovered field and fields around it are never mined.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class ChunkedBoard
+{
+    public static final int CHUNK_BITS = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    /* below this density regions without mines around would be infinite */
+    public static final double MIN_DENSITY = 0.12;
+    public static final double MAX_DENSITY = 0.9;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private long seed;
+    private double density;
+    private Map<Long, Chunk> chunks = new HashMap<>();
+    private Chunk lastChunk;
+    /* chunks which have array of fields, not only mines */
+    private int countedChunks;
+
+    private boolean initiated = false;
+    private int startX;
+    private int startY;
+    private int flags;
+    private long uncoveredFields;
+
+    private long[] revealed = new long[16];
+    private int revealedCount;
+
+    /**
+     * Single square part of board. Mines are generated with chunk, numbers of nearby mines
+     * are counted when one of chunk's fields is used, because it needs mines of chunks around.
+     */
+    private static class Chunk
+    {
+        private final int chunkX;
+        private final int chunkY;
+        private final long[] mines = new long[CHUNK_SIZE * CHUNK_SIZE / 64];
+        private byte[] fields;
+
+        Chunk(int chunkX, int chunkY)
+        {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+        }
+
+        boolean isMined(int localX, int localY)
+        {
+            int bit = localX << CHUNK_BITS | localY;
+            return (mines[bit >>> 6] & 1L << bit) != 0;
+        }
+    }
+
+    /**
+     * Starts new game on empty board. Nothing is generated until first field is uncovered.
+     * @param density probability that a field is mined, between <code>MIN_DENSITY</code> and <code>MAX_DENSITY</code>.
+     * @param seed seed from which mines of all chunks are generated.
+     */
+    public void newGame(double density, long seed)
+    {
+        if (density < MIN_DENSITY || density > MAX_DENSITY)
+            throw new IllegalArgumentException("Density must be between " + MIN_DENSITY + " and " + MAX_DENSITY);
+
+        this.density = density;
+        this.seed = seed;
+        chunks.clear();
+        lastChunk = null;
+        countedChunks = 0;
+        initiated = false;
+        flags = 0;
+        uncoveredFields = 0;
+        revealedCount = 0;
+    }
+
+    /**
+     * Uncovers field in given point and if it doesn't have any mine around
+     * uncovers all fields around, until whole region of empty fields and its border is uncovered.
+     * If field was uncovered before, fields around it are uncovered like in <code>uncoverAround</code>.
+     * First call of method sets point around which no mine is generated.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return <code>true</code> if uncovered field was mined or <code>false</code> otherwise.
+     */
+    public boolean uncover(int x, int y)
+    {
+        if (!initiated)
+        {
+            startX = x;
+            startY = y;
+            initiated = true;
+        }
+        revealedCount = 0;
+
+        int state = state(x, y);
+        if ((state & FLAGGED) != 0)
+            return false;
+        if ((state & UNCOVERED) != 0)
+            return revealAround(x, y);
+
+        return reveal(x, y);
+    }
+
+    /**
+     * Method checks if field in given point is uncovered and has exact same number
+     * of flags and mines around. If so uncovers not flagged fields around this field.
+     * @param posX vertical position of field.
+     * @param posY horizontal position of field.
+     * @return <code> true </code> if there was not flagged, mined field uncovered.
+     * <code> false </code> if everything is ok.
+     */
+    public boolean uncoverAround(int posX, int posY)
+    {
+        revealedCount = 0;
+        if (!initiated)
+            return false;
+
+        return revealAround(posX, posY);
+    }
+
+    /**
+     * Toggles flag in given field. Flags cannot be set before first field is uncovered.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     */
+    public void toggleFlag(int x, int y)
+    {
+        if (!initiated || (state(x, y) & UNCOVERED) != 0)
+            return;
+
+        Chunk chunk = countedChunk(x, y);
+        int local = (x & CHUNK_MASK) << CHUNK_BITS | y & CHUNK_MASK;
+        chunk.fields[local] ^= FLAGGED;
+        flags += (chunk.fields[local] & FLAGGED) != 0 ? 1 : -1;
+    }
+
+    /**
+     * Uncovers not flagged fields around field in given point if number of flags around
+     * is equal to number of mines around.
+     * @param posX vertical position of field.
+     * @param posY horizontal position of field.
+     * @return <code> true </code> if there was not flagged, mined field uncovered.
+     */
+    private boolean revealAround(int posX, int posY)
+    {
+        int state = state(posX, posY);
+        if ((state & UNCOVERED) == 0)
+            return false;
+
+        int flagNumber = 0;
+        for (int x = posX - 1; x <= posX + 1; x++)
+            for (int y = posY - 1; y <= posY + 1; y++)
+                if ((state(x, y) & FLAGGED) != 0)
+                    flagNumber++;
+        if (flagNumber != (state & NEARBY_MINES))
+            return false;
+
+        boolean mineUncovered = false;
+        for (int x = posX - 1; x <= posX + 1; x++)
+            for (int y = posY - 1; y <= posY + 1; y++)
+                if ((state(x, y) & (UNCOVERED | FLAGGED)) == 0 && reveal(x, y))
+                    mineUncovered = true;
+        return mineUncovered;
+    }
+
+    /**
+     * Uncovers covered field in given point and region of empty fields it belongs to,
+     * using list of revealed fields as a queue, like <code>Board</code> does.
+     * @param startX vertical position of covered, not flagged field.
+     * @param startY horizontal position of covered, not flagged field.
+     * @return <code>true</code> if uncovered field was mined or <code>false</code> otherwise.
+     */
+    private boolean reveal(int startX, int startY)
+    {
+        int next = revealedCount;
+        int start = setUncovered(startX, startY);
+        if ((start & MINED) != 0)
+            return true;
+
+        while (next < revealedCount)
+        {
+            long point = revealed[next++];
+            int posX = pointX(point);
+            int posY = pointY(point);
+            if ((state(posX, posY) & NEARBY_MINES) != 0)
+                continue;
+
+            for (int x = posX - 1; x <= posX + 1; x++)
+                for (int y = posY - 1; y <= posY + 1; y++)
+                    if ((state(x, y) & (UNCOVERED | FLAGGED)) == 0)
+                        setUncovered(x, y);
+        }
+        return false;
+    }
+
+    /**
+     * Marks field as uncovered and adds it to list of revealed fields.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return state of field.
+     */
+    private int setUncovered(int x, int y)
+    {
+        Chunk chunk = countedChunk(x, y);
+        int local = (x & CHUNK_MASK) << CHUNK_BITS | y & CHUNK_MASK;
+        chunk.fields[local] |= UNCOVERED;
+        if ((chunk.fields[local] & MINED) == 0)
+            uncoveredFields++;
+
+        if (revealedCount == revealed.length)
+            revealed = Arrays.copyOf(revealed, revealedCount * 2);
+        revealed[revealedCount++] = point(x, y);
+        return chunk.fields[local];
+    }
+
+    /**
+     * Returns packed state of field in given point, generating its chunk if needed.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return state of field.
+     */
+    private int state(int x, int y)
+    {
+        return countedChunk(x, y).fields[(x & CHUNK_MASK) << CHUNK_BITS | y & CHUNK_MASK];
+    }
+
+    /**
+     * Returns chunk containing given point with counted numbers of nearby mines.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return chunk of field.
+     */
+    private Chunk countedChunk(int x, int y)
+    {
+        int chunkX = x >> CHUNK_BITS;
+        int chunkY = y >> CHUNK_BITS;
+        if (lastChunk != null && lastChunk.chunkX == chunkX && lastChunk.chunkY == chunkY)
+            return lastChunk;
+
+        Chunk chunk = chunk(chunkX, chunkY);
+        if (chunk.fields == null)
+            countMines(chunk);
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Returns chunk with given coordinates, generating its mines if it wasn't touched before.
+     * @param chunkX vertical position of chunk.
+     * @param chunkY horizontal position of chunk.
+     * @return chunk.
+     */
+    private Chunk chunk(int chunkX, int chunkY)
+    {
+        long key = (long)chunkX << 32 | chunkY & 0xFFFFFFFFL;
+        Chunk chunk = chunks.get(key);
+        if (chunk == null)
+        {
+            chunk = generate(chunkX, chunkY);
+            chunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    /**
+     * Generates mines of chunk. Random generator is seeded with seed of board mixed with coordinates
+     * of the chunk, so the result doesn't depend on order in which chunks are generated.
+     * @param chunkX vertical position of chunk.
+     * @param chunkY horizontal position of chunk.
+     * @return new chunk.
+     */
+    private Chunk generate(int chunkX, int chunkY)
+    {
+        Chunk chunk = new Chunk(chunkX, chunkY);
+        SplittableRandom random = new SplittableRandom(seed ^ (chunkX * 0x9E3779B97F4A7C15L + chunkY) * 0xBF58476D1CE4E5B9L);
+        for (int local = 0; local < CHUNK_SIZE * CHUNK_SIZE; local++)
+        {
+            int x = chunkX << CHUNK_BITS | local >>> CHUNK_BITS;
+            int y = chunkY << CHUNK_BITS | local & CHUNK_MASK;
+            boolean safe = Math.abs(x - startX) <= 1 && Math.abs(y - startY) <= 1;
+            if (random.nextDouble() < density && !safe)
+                chunk.mines[local >>> 6] |= 1L << local;
+        }
+        return chunk;
+    }
+
+    /**
+     * Sets mined fields and numbers of nearby mines of chunk, using mines of chunks around it.
+     * @param chunk chunk to count.
+     */
+    private void countMines(Chunk chunk)
+    {
+        Chunk[] around = new Chunk[9];
+        for (int counter = 0; counter < 9; counter++)
+            around[counter] = chunk(chunk.chunkX + counter / 3 - 1, chunk.chunkY + counter % 3 - 1);
+
+        chunk.fields = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        countedChunks++;
+        for (int localX = 0; localX < CHUNK_SIZE; localX++)
+        {
+            for (int localY = 0; localY < CHUNK_SIZE; localY++)
+            {
+                int local = localX << CHUNK_BITS | localY;
+                if (chunk.isMined(localX, localY))
+                {
+                    chunk.fields[local] = MINED;
+                    continue;
+                }
+
+                int nearbyMines = 0;
+                for (int x = localX - 1; x <= localX + 1; x++)
+                {
+                    for (int y = localY - 1; y <= localY + 1; y++)
+                    {
+                        Chunk neighbour = around[((x >> CHUNK_BITS) + 1) * 3 + (y >> CHUNK_BITS) + 1];
+                        if (neighbour.isMined(x & CHUNK_MASK, y & CHUNK_MASK))
+                            nearbyMines++;
+                    }
+                }
+                chunk.fields[local] = (byte)nearbyMines;
+            }
+        }
+    }
+
+    /**
+     * Checks if field in given point has mine.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return <code> true </code> if field has mine or <code> false </code> otherwise.
+     */
+    public boolean isMined(int x, int y)
+    {
+        return initiated && (state(x, y) & MINED) != 0;
+    }
+
+    /**
+     * Gets numbers of mines around field in given point.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return number of mines around field.
+     */
+    public int getNearbyMines(int x, int y)
+    {
+        return initiated ? state(x, y) & NEARBY_MINES : 0;
+    }
+
+    /**
+     * Returns boolean value that states if field in given point is uncovered.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return <code> true </code> if given field is uncovered or <code> false </code> otherwise.
+     */
+    public boolean isUncovered(int x, int y)
+    {
+        return initiated && (state(x, y) & UNCOVERED) != 0;
+    }
+
+    /**
+     * Returns boolean value that states if field in given point is flagged.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return <code> true </code> if given field is flagged or <code> false </code> otherwise.
+     */
+    public boolean isFlagged(int x, int y)
+    {
+        return initiated && (state(x, y) & FLAGGED) != 0;
+    }
+
+    /**
+     * Returns number of fields uncovered by last call of <code>uncover</code> or <code>uncoverAround</code>.
+     * @return number of uncovered fields.
+     */
+    public int getRevealedCount()
+    {
+        return revealedCount;
+    }
+
+    /**
+     * Returns point uncovered by last call of <code>uncover</code> or <code>uncoverAround</code>.
+     * Coordinates can be read with <code>pointX</code> and <code>pointY</code>.
+     * @param position position in list of revealed fields (counting from 0).
+     * @return packed coordinates of field.
+     */
+    public long getRevealed(int position)
+    {
+        if (position >= revealedCount)
+            throw new IndexOutOfBoundsException("Position " + position + " out of " + revealedCount);
+        return revealed[position];
+    }
+
+    /**
+     * Returns number of non-mined fields uncovered since start of the game.
+     * @return number of uncovered fields.
+     */
+    public long getUncoveredFields()
+    {
+        return uncoveredFields;
+    }
+
+    /**
+     * Returns number of flags set on board.
+     * @return number of flags.
+     */
+    public int getFlags()
+    {
+        return flags;
+    }
+
+    /**
+     * Returns number of chunks kept in memory, including those whose only mines were generated.
+     * Only chunks counted by <code>getCountedChunkCount</code> keep array of fields.
+     * @return number of chunks.
+     */
+    public int getChunkCount()
+    {
+        return chunks.size();
+    }
+
+    /**
+     * Returns number of chunks whose fields are used, so that they keep array of fields next to mines.
+     * @return number of chunks with fields.
+     */
+    public int getCountedChunkCount()
+    {
+        return countedChunks;
+    }
+
+    /**
+     * Returns approximate memory taken by data of chunks: bitmap of mines of every chunk
+     * and array of fields of chunks with fields, without overhead of objects and map.
+     * @return size of data in bytes.
+     */
+    public long getDataSize()
+    {
+        return (long) chunks.size() * CHUNK_SIZE * CHUNK_SIZE / 8 + (long) countedChunks * CHUNK_SIZE * CHUNK_SIZE;
+    }
+
+    /**
+     * Returns seed of board.
+     * @return seed.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Packs coordinates of point into one number.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @return packed coordinates.
+     */
+    public static long point(int x, int y)
+    {
+        return (long)x << 32 | y & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Returns vertical position of packed point.
+     * @param point packed coordinates.
+     * @return vertical position.
+     */
+    public static int pointX(long point)
+    {
+        return (int)(point >> 32);
+    }
+
+    /**
+     * Returns horizontal position of packed point.
+     * @param point packed coordinates.
+     * @return horizontal position.
+     */
+    public static int pointY(long point)
+    {
+        return (int)point;
+    }
+}
@@ -0,0 +1,356 @@
+package Mines.Model;
+
+/**
+ * Single game played on a <code>Board</code>, independent of any user interface.
+ *
+ * Session keeps state of the game and turns reveal, flag and chord moves into
+ * <code>MoveResult</code> objects. It doesn't use AWT nor Swing, so games can be played
+ * without display, e.g. in batch simulations, benchmarks or by bots.
+ * Moves which changed the board can be undone and redone, see <code>UndoHistory</code>.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class GameSession
+{
+    /**
+     * Enumeration-type object which contains possible states of the game.
+     * <code>READY</code> - no field has been uncovered yet,
+     * <code>PLAYING</code> - game is on,
+     * <code>WON</code> - all non-mined fields are uncovered,
+     * <code>LOST</code> - mine was uncovered.
+     */
+    public enum State {READY, PLAYING, WON, LOST}
+
+    private static final CellList NOTHING_REVEALED = new CellList();
+
+    private Board board;
+    private State state = State.READY;
+    private int moves;
+    private MoveResult result = new MoveResult();
+    private UndoHistory history = new UndoHistory();
+    private boolean undoEnabled = true;
+    private int lastAction;
+    private int lastX;
+    private int lastY;
+
+    /**
+     * Creates session playing on its own board.
+     */
+    public GameSession()
+    {
+        this(new Board());
+    }
+
+    /**
+     * Creates session playing on given board.
+     * @param board board to play on.
+     */
+    public GameSession(Board board)
+    {
+        this.board = board;
+    }
+
+    /**
+     * Starts new game on board with given parameters and random seed.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     */
+    public void newGame(int height, int width, int minesNumber)
+    {
+        board.newGame(height, width, minesNumber);
+        reset();
+    }
+
+    /**
+     * Starts new game on board with given parameters and seed.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param seed seed of the board.
+     */
+    public void newGame(int height, int width, int minesNumber, long seed)
+    {
+        board.newGame(height, width, minesNumber, seed);
+        reset();
+    }
+
+    /**
+     * Starts new game on prepared board, which replaces board of the session.
+     * Board should be ready for new game, i.e. after <code>newGame</code> and before the first uncover.
+     * @param board board of new game.
+     */
+    public void newGame(Board board)
+    {
+        history.clear(this.board);
+        this.board = board;
+        reset();
+    }
+
+    /**
+     * Uncovers field in given point. First revealed field starts the game.
+     * Nothing is changed if game is over.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @return result of the move.
+     */
+    public MoveResult reveal(int x, int y)
+    {
+        return play(MoveLog.REVEAL, x, y, false);
+    }
+
+    /**
+     * Uncovers fields around uncovered field in given point if it has as many flags around as mines.
+     * Nothing is changed if game is over.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @return result of the move.
+     */
+    public MoveResult chord(int x, int y)
+    {
+        return play(MoveLog.CHORD, x, y, false);
+    }
+
+    /**
+     * Toggles flag in given field if it is covered. Nothing is changed if game is over.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @return result of the move.
+     */
+    public MoveResult flag(int x, int y)
+    {
+        return play(MoveLog.FLAG, x, y, false);
+    }
+
+    /**
+     * Takes back the last move which changed the board, also move which ended the game.
+     * Fields changed by move are added to changes of board. Time is proportional to number of these fields,
+     * except undoing the first uncover, after which mines are removed from whole board.
+     * @return <code>true</code> if move was undone or <code>false</code> if there was nothing to undo.
+     */
+    public boolean undo()
+    {
+        UndoHistory.Step step = history.undo(board);
+        if (step == null)
+            return false;
+
+        state = step.state;
+        moves = step.moves;
+        setLastMove(step.action, step.x, step.y);
+        return true;
+    }
+
+    /**
+     * Makes again the last undone move. Undone moves can be redone until new move is made.
+     * @return result of the move, unchanged if there was nothing to redo.
+     */
+    public MoveResult redo()
+    {
+        UndoHistory.Step step = history.redo();
+        if (step == null)
+            return unchanged();
+
+        return play(step.action, step.x, step.y, true);
+    }
+
+    /**
+     * Turns recording of moves for undo on or off. Sessions which never undo, e.g. batch simulations,
+     * can turn it off to avoid saving changed fields. Turning it off forgets recorded moves.
+     * @param undoEnabled whether moves should be recorded.
+     */
+    public void setUndoEnabled(boolean undoEnabled)
+    {
+        this.undoEnabled = undoEnabled;
+        if (!undoEnabled)
+            history.clear(board);
+    }
+
+    /**
+     * Checks whether there is move which can be undone.
+     * @return <code>true</code> if <code>undo</code> would change the board.
+     */
+    public boolean canUndo()
+    {
+        return history.canUndo();
+    }
+
+    /**
+     * Checks whether there is undone move which can be made again.
+     * @return <code>true</code> if <code>redo</code> would change the board.
+     */
+    public boolean canRedo()
+    {
+        return history.canRedo();
+    }
+
+    /**
+     * Returns action of the last move which was made, undone or redone.
+     * @return one of <code>MoveLog</code> actions.
+     */
+    public int getLastAction()
+    {
+        return lastAction;
+    }
+
+    /**
+     * Returns vertical position of field of the last move which was made, undone or redone.
+     * @return vertical position of field (counting from 0).
+     */
+    public int getLastX()
+    {
+        return lastX;
+    }
+
+    /**
+     * Returns horizontal position of field of the last move which was made, undone or redone.
+     * @return horizontal position of field (counting from 0).
+     */
+    public int getLastY()
+    {
+        return lastY;
+    }
+
+    /**
+     * Returns state of the game.
+     * @return state of the game.
+     */
+    public State getState()
+    {
+        return state;
+    }
+
+    /**
+     * Checks whether game is won or lost.
+     * @return <code>true</code> if game is over or <code>false</code> otherwise.
+     */
+    public boolean isOver()
+    {
+        return state == State.WON || state == State.LOST;
+    }
+
+    /**
+     * Returns number of moves which changed the board since start of the game.
+     * @return number of moves.
+     */
+    public int getMoves()
+    {
+        return moves;
+    }
+
+    /**
+     * Returns board of the session, for queries about its fields.
+     * @return board.
+     */
+    public Board getBoard()
+    {
+        return board;
+    }
+
+    /**
+     * Brings back state of the game, after board of the session was restored from snapshot.
+     * @param state state of the game.
+     * @param moves number of moves made in game.
+     */
+    void restore(State state, int moves)
+    {
+        history.clear(board);
+        this.state = state;
+        this.moves = moves;
+    }
+
+    /**
+     * Sets state of new game.
+     */
+    private void reset()
+    {
+        history.clear(board);
+        state = State.READY;
+        moves = 0;
+    }
+
+    /**
+     * Makes move recorded in undo history. Nothing is changed if game is over.
+     * @param action one of <code>MoveLog</code> actions.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @param redo whether move is redone, so moves which can be redone are kept.
+     * @return result of the move.
+     */
+    private MoveResult play(int action, int x, int y, boolean redo)
+    {
+        if (isOver())
+            return unchanged();
+
+        if (undoEnabled)
+            history.begin(board, action, x, y, state, moves);
+        if (action == MoveLog.FLAG)
+        {
+            if (board.isUncovered(x, y))
+                result.set(state, false, false, NOTHING_REVEALED);
+            else
+            {
+                board.toggleFlag(x, y);
+                moves++;
+                result.set(state, false, true, NOTHING_REVEALED);
+            }
+        }
+        else if (action == MoveLog.CHORD)
+            finish(board.uncoverAround(x, y), board.getRevealed());
+        else if (board.isFlagged(x, y))
+            result.set(state, false, false, NOTHING_REVEALED);
+        else
+            finish(board.uncover(x, y), board.getRevealed());
+
+        if (undoEnabled)
+            history.end(board, result.isChanged(), redo);
+        if (result.isChanged())
+            setLastMove(action, x, y);
+        return result;
+    }
+
+    /**
+     * Remembers the last move which was made, undone or redone.
+     * @param action one of <code>MoveLog</code> actions.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     */
+    private void setLastMove(int action, int x, int y)
+    {
+        lastAction = action;
+        lastX = x;
+        lastY = y;
+    }
+
+    /**
+     * Updates state of the game after uncovering move and fills result.
+     * @param mineUncovered whether move uncovered mine.
+     * @param revealed fields uncovered by move.
+     * @return result of the move.
+     */
+    private MoveResult finish(boolean mineUncovered, CellList revealed)
+    {
+        if (revealed.size() > 0)
+        {
+            moves++;
+            if (mineUncovered)
+                state = State.LOST;
+            else if (board.isGameWon())
+                state = State.WON;
+            else
+                state = State.PLAYING;
+        }
+        result.set(state, mineUncovered, revealed.size() > 0, revealed);
+        return result;
+    }
+
+    /**
+     * Fills result of move which didn't change anything.
+     * @return result of the move.
+     */
+    private MoveResult unchanged()
+    {
+        result.set(state, false, false, NOTHING_REVEALED);
+        return result;
+    }
+}
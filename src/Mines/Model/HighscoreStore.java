@@ -0,0 +1,544 @@
+package Mines.Model;
+
+import Mines.Metrics.Metrics;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Best times of every board configuration, i.e. height, width and number of mines, kept in append-only file.
+ *
+ * File starts with a header followed by records, each made of length of payload, payload and CRC32 of payload.
+ * Payload contains height, width and number of mines, time in milliseconds, date and name of the player.
+ * New result costs a single append of a few dozen bytes. When file is loaded, records are read sequentially
+ * into in-memory lists of the best <code>TOP_SIZE</code> results per configuration, and damaged tail
+ * of the file, e.g. left by interrupted append, is cut off.
+ *
+ * Store is meant to be loaded once and kept in memory. Results are recorded in memory and written
+ * by background thread, which waits <code>WRITE_DELAY</code> milliseconds to append results of a burst
+ * together. When most records in file are no longer among the best ones, writer compacts file:
+ * the best results are written to temporary file which then atomically replaces the store.
+ * Results not written yet are written when virtual machine exits.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class HighscoreStore
+{
+    public static final String FILE_NAME = "highscores.dat";
+    public static final String LEGACY_FILE_NAME = "highscores.ser";
+    public static final int TOP_SIZE = 10;
+    public static final long WRITE_DELAY = 500;
+    /* file is compacted when it has this many times more records than the best results */
+    private static final int COMPACT_RATIO = 4;
+    private static final int COMPACT_MIN_RECORDS = 1000;
+
+    private static final int MAGIC = 0x4D494E45;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1024;
+    private static final int MAX_NAME_BYTES = 255;
+    /* payload without name: height, width, mines, time, date and length of name */
+    private static final int ENTRY_SIZE = 4 * 4 + 8 + 1;
+
+    private File file;
+    private Map<Long, List<Entry>> tops = new HashMap<>();
+    private int entries;
+    private long records;
+
+    private List<Entry> pending = new ArrayList<>();
+    private Object fileLock = new Object();
+    private ScheduledExecutorService writer;
+
+    /**
+     * Single result in highscores.
+     */
+    public static class Entry
+    {
+        private final int height;
+        private final int width;
+        private final int minesNumber;
+        private final int timeMillis;
+        private final long date;
+        private final String name;
+
+        /**
+         * Creates result.
+         * @param height height of board.
+         * @param width width of board.
+         * @param minesNumber number of mines in the board.
+         * @param timeMillis time of the game in milliseconds.
+         * @param date time when game was won, in milliseconds since 1970.
+         * @param name name of the player.
+         */
+        public Entry(int height, int width, int minesNumber, int timeMillis, long date, String name)
+        {
+            this.height = height;
+            this.width = width;
+            this.minesNumber = minesNumber;
+            this.timeMillis = timeMillis;
+            this.date = date;
+            this.name = name;
+        }
+
+        public int getHeight()
+        {
+            return height;
+        }
+
+        public int getWidth()
+        {
+            return width;
+        }
+
+        public int getMinesNumber()
+        {
+            return minesNumber;
+        }
+
+        public int getTimeMillis()
+        {
+            return timeMillis;
+        }
+
+        public long getDate()
+        {
+            return date;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * Function returns <code>String</code> with name and time of entry.
+         * Line style is: [name], [time in seconds]
+         * @return text of entry.
+         */
+        @Override
+        public String toString()
+        {
+            return name + ", " + String.format("%.2f", timeMillis / 1000.0);
+        }
+    }
+
+    /**
+     * Creates store kept in given file. Store is empty until <code>load</code> is called.
+     * @param file file of the store.
+     */
+    public HighscoreStore(File file)
+    {
+        this.file = file;
+    }
+
+    /**
+     * Function opens store in default file, importing highscores from legacy file if there is no store yet.
+     * @return loaded store, empty if file couldn't be read.
+     */
+    public static HighscoreStore open()
+    {
+        HighscoreStore store = new HighscoreStore(new File(FILE_NAME));
+        try
+        {
+            if (!store.file.exists())
+                store.importLegacy(new File(LEGACY_FILE_NAME));
+            store.load();
+        }
+        catch (IOException e)
+        {
+            System.err.println("Could not load file");
+        }
+        store.startWriter();
+        return store;
+    }
+
+    /**
+     * Starts background writer of recorded results, and makes sure they are written when virtual machine exits.
+     */
+    public void startWriter()
+    {
+        if (writer != null)
+            return;
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Highscores writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "Highscores flush"));
+    }
+
+    /**
+     * Reads all records of file and keeps the best ones in memory. Damaged tail of file is cut off.
+     * File which isn't a highscores file is moved aside to file with ".bad" suffix, so that results
+     * recorded later are written to new file.
+     * @throws IOException thrown if file exists but can't be read or isn't a highscores file.
+     */
+    public synchronized void load() throws IOException
+    {
+        tops.clear();
+        entries = 0;
+        records = 0;
+        if (!file.exists())
+            return;
+
+        long start = System.nanoTime();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+        {
+            File bad = new File(file.getPath() + ".bad");
+            Files.move(file.toPath(), bad.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            throw new IOException("Not a highscores file: " + file + ", moved to " + bad);
+        }
+
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= 4)
+        {
+            int length = buffer.getInt(buffer.position());
+            if (length < ENTRY_SIZE || length > MAX_RECORD_SIZE || buffer.remaining() < 4 + length + 4)
+                break;
+            crc.reset();
+            crc.update(bytes, buffer.position() + 4, length);
+            if (buffer.getInt(buffer.position() + 4 + length) != (int) crc.getValue())
+                break;
+
+            int payload = buffer.position() + 4;
+            buffer.position(payload);
+            decode(buffer);
+            buffer.position(payload + length + 4);
+            records++;
+        }
+        long validLength = buffer.position();
+
+        if (validLength < file.length())
+        {
+            System.err.println("Damaged highscores record at byte " + validLength + ", rest of file is dropped");
+            try (RandomAccessFile output = new RandomAccessFile(file, "rw"))
+            {
+                output.setLength(validLength);
+            }
+        }
+        Metrics.highscoreIo("load", records, start);
+    }
+
+    /**
+     * Checks whether time would be one of the best times of its configuration.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param timeMillis time of the game in milliseconds.
+     * @return <code>true</code> if time would be recorded by <code>record</code>.
+     */
+    public synchronized boolean isHighscore(int height, int width, int minesNumber, int timeMillis)
+    {
+        List<Entry> top = tops.get(key(height, width, minesNumber));
+        return top == null || top.size() < TOP_SIZE || timeMillis < top.get(top.size() - 1).timeMillis;
+    }
+
+    /**
+     * Records result if it is one of the best times of its configuration. Result is kept in memory
+     * at once and written to file by background writer, or at once if writer isn't started.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param timeMillis time of the game in milliseconds.
+     * @param name name of the player.
+     * @return <code>true</code> if result was recorded, or <code>false</code> otherwise.
+     */
+    public synchronized boolean record(int height, int width, int minesNumber, int timeMillis, String name)
+    {
+        if (!isHighscore(height, width, minesNumber, timeMillis))
+            return false;
+
+        Entry entry = new Entry(height, width, minesNumber, timeMillis, System.currentTimeMillis(), name);
+        add(entry);
+        pending.add(entry);
+        if (writer == null)
+            flush();
+        else if (pending.size() == 1)
+            writer.schedule(this::flush, WRITE_DELAY, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Writes recorded results which aren't written yet, and compacts file if it has too many records.
+     * Waits for writes started by other threads.
+     */
+    public void flush()
+    {
+        synchronized (fileLock)
+        {
+            List<Entry> written;
+            List<Entry> best = null;
+            synchronized (this)
+            {
+                if (pending.isEmpty())
+                    return;
+                written = pending;
+                pending = new ArrayList<>();
+                if (records + written.size() > COMPACT_MIN_RECORDS
+                        && records + written.size() > (long) COMPACT_RATIO * entries)
+                {
+                    best = new ArrayList<>(entries);
+                    for (List<Entry> top: tops.values())
+                        best.addAll(top);
+                }
+            }
+
+            try
+            {
+                if (best != null)
+                    compact(best);
+                else
+                    append(written);
+            }
+            catch (IOException e)
+            {
+                System.err.println("Could not save file");
+                synchronized (this)
+                {
+                    written.addAll(pending);
+                    pending = written;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the best results of configuration, from the best one.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @return copy of list of at most <code>TOP_SIZE</code> entries.
+     */
+    public synchronized List<Entry> getTop(int height, int width, int minesNumber)
+    {
+        List<Entry> top = tops.get(key(height, width, minesNumber));
+        return top == null ? Collections.emptyList() : new ArrayList<>(top);
+    }
+
+    /**
+     * Returns number of records in file, i.e. read from it, appended since and not removed by compaction.
+     * @return number of records in file.
+     */
+    public synchronized long getRecords()
+    {
+        return records;
+    }
+
+    /**
+     * Imports best times of three difficulty levels from file of <code>Highscores</code> object.
+     * Default entries of legacy file are skipped.
+     * @param legacyFile file with serialized <code>Highscores</code>.
+     * @throws IOException thrown if entries can't be appended to store.
+     */
+    void importLegacy(File legacyFile) throws IOException
+    {
+        if (!legacyFile.exists())
+            return;
+
+        Highscores legacy;
+        try (ObjectInputStream input = new ObjectInputStream(new FileInputStream(legacyFile)))
+        {
+            legacy = (Highscores) input.readObject();
+        }
+        catch (ClassNotFoundException | IOException | ClassCastException e)
+        {
+            System.err.println("Could not import " + legacyFile);
+            return;
+        }
+
+        long date = legacyFile.lastModified();
+        List<Entry> imported = new ArrayList<>();
+        addLegacy(imported, 9, 9, 10, legacy.timeBeginner, legacy.nameBeginner, date);
+        addLegacy(imported, 16, 16, 30, legacy.timeIntermediate, legacy.nameIntermediate, date);
+        addLegacy(imported, 16, 30, 99, legacy.timeExpert, legacy.nameExpert, date);
+        append(imported);
+    }
+
+    /**
+     * Adds legacy entry to list unless it is the default one.
+     * @param entries list of entries to import.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param time time in seconds.
+     * @param name name of the player.
+     * @param date date of the entry.
+     */
+    private static void addLegacy(List<Entry> entries, int height, int width, int minesNumber,
+                                  float time, String name, long date)
+    {
+        if (time < 999.99f)
+            entries.add(new Entry(height, width, minesNumber, Math.round(time * 1000), date, name));
+    }
+
+    /**
+     * Appends records of entries to file, writing header first if file is new.
+     * @param entries entries to append.
+     * @throws IOException thrown if file can't be written.
+     */
+    private void append(List<Entry> entries) throws IOException
+    {
+        long start = System.nanoTime();
+        boolean header = !file.exists() || file.length() == 0;
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, true))))
+        {
+            if (header)
+                writeHeader(output);
+            for (Entry entry: entries)
+                writeRecord(output, entry);
+        }
+        synchronized (this)
+        {
+            records += entries.size();
+        }
+        Metrics.highscoreIo("append", entries.size(), start);
+    }
+
+    /**
+     * Replaces file with file containing only the best results. New file is written and synced
+     * as temporary file first and then moved over the old one, so file is never left half written.
+     * @param best all entries kept in memory.
+     * @throws IOException thrown if file can't be written.
+     */
+    private void compact(List<Entry> best) throws IOException
+    {
+        long start = System.nanoTime();
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary))
+        {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(stream));
+            writeHeader(output);
+            for (Entry entry: best)
+                writeRecord(output, entry);
+            output.flush();
+            stream.getFD().sync();
+        }
+
+        try
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        synchronized (this)
+        {
+            records = best.size();
+        }
+        Metrics.highscoreIo("compact", best.size(), start);
+    }
+
+    /**
+     * Writes header of file.
+     * @param output stream to write to.
+     * @throws IOException thrown if stream can't be written.
+     */
+    private static void writeHeader(DataOutputStream output) throws IOException
+    {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+    }
+
+    /**
+     * Writes single record: length of payload, payload and its CRC32.
+     * Name longer than <code>MAX_NAME_BYTES</code> bytes is cut before the first character that doesn't fit.
+     * @param output stream to write to.
+     * @param entry entry to write.
+     * @throws IOException thrown if stream can't be written.
+     */
+    static void writeRecord(DataOutputStream output, Entry entry) throws IOException
+    {
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(name.length, MAX_NAME_BYTES);
+        /* don't split character, continuation bytes of UTF-8 start with bits 10 */
+        while (nameLength < name.length && (name[nameLength] & 0xC0) == 0x80)
+            nameLength--;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + nameLength);
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeInt(entry.height);
+        payload.writeInt(entry.width);
+        payload.writeInt(entry.minesNumber);
+        payload.writeInt(entry.timeMillis);
+        payload.writeLong(entry.date);
+        payload.writeByte(nameLength);
+        payload.write(name, 0, nameLength);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        output.writeInt(bytes.size());
+        bytes.writeTo(output);
+        output.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * Decodes payload of record at position of buffer and adds it to its configuration.
+     * Name is decoded only if entry is one of the best ones.
+     * @param buffer buffer positioned at payload, moved after it.
+     */
+    private void decode(ByteBuffer buffer)
+    {
+        int height = buffer.getInt();
+        int width = buffer.getInt();
+        int minesNumber = buffer.getInt();
+        int timeMillis = buffer.getInt();
+        long date = buffer.getLong();
+        int nameLength = buffer.get() & 0xFF;
+        if (isHighscore(height, width, minesNumber, timeMillis))
+        {
+            String name = new String(buffer.array(), buffer.position(), nameLength, StandardCharsets.UTF_8);
+            add(new Entry(height, width, minesNumber, timeMillis, date, name));
+        }
+        buffer.position(buffer.position() + nameLength);
+    }
+
+    /**
+     * Puts entry into list of its configuration, keeping list sorted and at most <code>TOP_SIZE</code> long.
+     * Entries with equal times are ordered from the earliest one.
+     * @param entry entry to add.
+     */
+    private void add(Entry entry)
+    {
+        List<Entry> top = tops.computeIfAbsent(key(entry.height, entry.width, entry.minesNumber),
+                key -> new ArrayList<>(TOP_SIZE + 1));
+        int position = top.size();
+        while (position > 0 && top.get(position - 1).timeMillis > entry.timeMillis)
+            position--;
+        if (position >= TOP_SIZE)
+            return;
+        top.add(position, entry);
+        entries++;
+        if (top.size() > TOP_SIZE)
+        {
+            top.remove(TOP_SIZE);
+            entries--;
+        }
+    }
+
+    /**
+     * Packs configuration of board into key of map.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @return key of configuration.
+     */
+    private static long key(int height, int width, int minesNumber)
+    {
+        return ((long) height << 42) | ((long) width << 21) | minesNumber;
+    }
+}
@@ -0,0 +1,292 @@
+package Mines.Model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Record of single game: parameters and seed of board followed by moves.
+ *
+ * Board is fully determined by its seed and the first uncovered field, so moves are enough to play
+ * the game again. Every move is stored as two variable-length numbers (7 bits per byte):
+ * index of field shifted left by two bits with action in the lowest bits, and time in milliseconds
+ * since previous move. Typical move takes 3 to 5 bytes.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class MoveLog
+{
+    public static final int REVEAL = 0;
+    public static final int FLAG = 1;
+    public static final int CHORD = 2;
+
+    private static final int MAGIC = 0x4D4C4F47;
+
+    private int height;
+    private int width;
+    private int minesNumber;
+    private long seed;
+
+    private byte[] data = new byte[64];
+    private int length;
+    private int moves;
+    private long lastTime;
+
+    /**
+     * Reader of moves in the log, from the first one.
+     */
+    public class Cursor
+    {
+        private int position;
+        private int action;
+        private int index;
+        private long time;
+
+        /**
+         * Reads next move.
+         * @return <code>true</code> if move was read or <code>false</code> if there are no more moves.
+         */
+        public boolean next()
+        {
+            if (position >= length)
+                return false;
+
+            long field = readVarint();
+            action = (int) (field & 3);
+            index = (int) (field >>> 2);
+            time += readVarint();
+            return true;
+        }
+
+        /**
+         * Returns action of move, one of <code>REVEAL</code>, <code>FLAG</code> and <code>CHORD</code>.
+         * @return action of last read move.
+         */
+        public int getAction()
+        {
+            return action;
+        }
+
+        /**
+         * Returns index of field of move, i.e. <code>x * width + y</code>.
+         * @return index of field of last read move.
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * Returns time of move since start of the game.
+         * @return time in milliseconds.
+         */
+        public long getTime()
+        {
+            return time;
+        }
+
+        /**
+         * Reads variable-length number.
+         * @return read number.
+         */
+        private long readVarint()
+        {
+            long value = 0;
+            int shift = 0;
+            byte next;
+            do
+            {
+                next = data[position++];
+                value |= (long) (next & 0x7F) << shift;
+                shift += 7;
+            }
+            while (next < 0);
+            return value;
+        }
+    }
+
+    /**
+     * Creates empty log of game on board with given parameters.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param seed seed of the board.
+     */
+    public MoveLog(int height, int width, int minesNumber, long seed)
+    {
+        this.height = height;
+        this.width = width;
+        this.minesNumber = minesNumber;
+        this.seed = seed;
+    }
+
+    /**
+     * Appends move to the log.
+     * @param action one of <code>REVEAL</code>, <code>FLAG</code> and <code>CHORD</code>.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @param time time of move since start of the game in milliseconds, not earlier than previous move.
+     */
+    public void add(int action, int x, int y, long time)
+    {
+        writeVarint((long) (x * width + y) << 2 | action);
+        writeVarint(Math.max(0, time - lastTime));
+        lastTime = Math.max(lastTime, time);
+        moves++;
+    }
+
+    /**
+     * Removes the last move from the log, e.g. when it is undone. Only bytes of this move are read:
+     * the last byte of every number has the highest bit clear, so start of move is found going backwards.
+     * @return <code>true</code> if move was removed or <code>false</code> if log is empty.
+     */
+    public boolean removeLast()
+    {
+        if (moves == 0)
+            return false;
+
+        int timeStart = startOfNumber(length - 1);
+        long delta = 0;
+        for (int position = length - 1; position >= timeStart; position--)
+            delta = delta << 7 | data[position] & 0x7F;
+        length = startOfNumber(timeStart - 1);
+        lastTime -= delta;
+        moves--;
+        return true;
+    }
+
+    /**
+     * Returns reader of moves, starting before the first move.
+     * @return new cursor.
+     */
+    public Cursor cursor()
+    {
+        return new Cursor();
+    }
+
+    /**
+     * Returns height of board of the game.
+     * @return number of rows.
+     */
+    public int getHeight()
+    {
+        return height;
+    }
+
+    /**
+     * Returns width of board of the game.
+     * @return number of columns.
+     */
+    public int getWidth()
+    {
+        return width;
+    }
+
+    /**
+     * Returns number of mines in board of the game.
+     * @return number of mines.
+     */
+    public int getMinesNumber()
+    {
+        return minesNumber;
+    }
+
+    /**
+     * Returns seed of board of the game.
+     * @return seed of the board.
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Returns number of moves in the log.
+     * @return number of moves.
+     */
+    public int getMoveCount()
+    {
+        return moves;
+    }
+
+    /**
+     * Returns size of encoded moves.
+     * @return number of bytes.
+     */
+    public int getByteSize()
+    {
+        return length;
+    }
+
+    /**
+     * Writes log to stream.
+     * @param output stream to write to.
+     * @throws IOException thrown if stream can't be written.
+     */
+    public void writeTo(DataOutputStream output) throws IOException
+    {
+        output.writeInt(MAGIC);
+        output.writeInt(height);
+        output.writeInt(width);
+        output.writeInt(minesNumber);
+        output.writeLong(seed);
+        output.writeInt(moves);
+        output.writeInt(length);
+        output.write(data, 0, length);
+    }
+
+    /**
+     * Reads log written by <code>writeTo</code>.
+     * @param input stream to read from.
+     * @return read log.
+     * @throws IOException thrown if stream can't be read or doesn't contain log.
+     */
+    public static MoveLog readFrom(DataInputStream input) throws IOException
+    {
+        if (input.readInt() != MAGIC)
+            throw new IOException("Not a move log");
+
+        MoveLog log = new MoveLog(input.readInt(), input.readInt(), input.readInt(), input.readLong());
+        log.moves = input.readInt();
+        log.length = input.readInt();
+        log.data = new byte[Math.max(64, log.length)];
+        input.readFully(log.data, 0, log.length);
+
+        Cursor cursor = log.cursor();
+        while (cursor.next())
+            log.lastTime = cursor.getTime();
+        return log;
+    }
+
+    /**
+     * Finds the first byte of variable-length number ending at given position.
+     * @param last position of the last byte of number.
+     * @return position of the first byte of number.
+     */
+    private int startOfNumber(int last)
+    {
+        int first = last;
+        while (first > 0 && data[first - 1] < 0)
+            first--;
+        return first;
+    }
+
+    /**
+     * Appends variable-length number.
+     * @param value non-negative number.
+     */
+    private void writeVarint(long value)
+    {
+        if (length + 10 > data.length)
+            data = Arrays.copyOf(data, data.length * 2);
+
+        while ((value & ~0x7FL) != 0)
+        {
+            data[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+}
@@ -0,0 +1,67 @@
+package Mines.Model;
+
+/**
+ * Result of single move made in <code>GameSession</code>.
+ * Session reuses one result object, so it is valid until next move in the same session.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class MoveResult
+{
+    private GameSession.State state;
+    private boolean mineUncovered;
+    private boolean changed;
+    private CellList revealed;
+
+    /**
+     * Sets all values of result.
+     * @param state state of the game after move.
+     * @param mineUncovered whether move uncovered mine.
+     * @param changed whether move changed any field.
+     * @param revealed list of fields uncovered by move.
+     */
+    void set(GameSession.State state, boolean mineUncovered, boolean changed, CellList revealed)
+    {
+        this.state = state;
+        this.mineUncovered = mineUncovered;
+        this.changed = changed;
+        this.revealed = revealed;
+    }
+
+    /**
+     * Returns state of the game after move.
+     * @return state of the game.
+     */
+    public GameSession.State getState()
+    {
+        return state;
+    }
+
+    /**
+     * Checks whether move uncovered not flagged mine.
+     * @return <code>true</code> if mine was uncovered or <code>false</code> otherwise.
+     */
+    public boolean isMineUncovered()
+    {
+        return mineUncovered;
+    }
+
+    /**
+     * Checks whether move changed state of any field.
+     * @return <code>true</code> if any field was uncovered or flag was toggled.
+     */
+    public boolean isChanged()
+    {
+        return changed;
+    }
+
+    /**
+     * Returns fields uncovered by move. List is empty for flag moves.
+     * @return list of uncovered fields' indices.
+     */
+    public CellList getRevealed()
+    {
+        return revealed;
+    }
+}
@@ -0,0 +1,186 @@
+package Mines.Model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays again game recorded in <code>MoveLog</code>, on its own board and without user interface.
+ *
+ * Moves can be applied one by one or all at once, at full speed. Every <code>snapshotInterval</code>
+ * moves board is saved in snapshot when position is reached for the first time, so seeking to any move
+ * restores the nearest earlier snapshot and replays at most <code>snapshotInterval - 1</code> moves.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class Replay
+{
+    public static final int SNAPSHOT_INTERVAL = 32;
+
+    private int snapshotInterval;
+    private int width;
+    private byte[] actions;
+    private int[] fields;
+    private long[] times;
+
+    private Board board = new Board();
+    private GameSession session = new GameSession(board);
+    private int position;
+
+    private List<BoardSnapshot> snapshots = new ArrayList<>();
+    private List<GameSession.State> states = new ArrayList<>();
+    private List<Integer> sessionMoves = new ArrayList<>();
+
+    /**
+     * Creates replay of moves made so far in given log, with default snapshot interval.
+     * @param log log of the game.
+     */
+    public Replay(MoveLog log)
+    {
+        this(log, SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Creates replay of moves made so far in given log. Replay starts before the first move.
+     * @param log log of the game.
+     * @param snapshotInterval number of moves between snapshots.
+     */
+    public Replay(MoveLog log, int snapshotInterval)
+    {
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+        this.width = log.getWidth();
+
+        int count = log.getMoveCount();
+        actions = new byte[count];
+        fields = new int[count];
+        times = new long[count];
+        MoveLog.Cursor cursor = log.cursor();
+        for (int move = 0; move < count && cursor.next(); move++)
+        {
+            actions[move] = (byte) cursor.getAction();
+            fields[move] = cursor.getIndex();
+            times[move] = cursor.getTime();
+        }
+
+        session.setUndoEnabled(false);
+        session.newGame(log.getHeight(), log.getWidth(), log.getMinesNumber(), log.getSeed());
+        saveSnapshot();
+    }
+
+    /**
+     * Applies next move to the board.
+     * @return result of the move or <code>null</code> if all moves were applied.
+     */
+    public MoveResult step()
+    {
+        if (position >= fields.length)
+            return null;
+
+        int x = fields[position] / width;
+        int y = fields[position] % width;
+        MoveResult result;
+        switch (actions[position])
+        {
+            case MoveLog.FLAG:
+                result = session.flag(x, y);
+                break;
+            case MoveLog.CHORD:
+                result = session.chord(x, y);
+                break;
+            default:
+                result = session.reveal(x, y);
+                break;
+        }
+
+        position++;
+        if (position % snapshotInterval == 0 && snapshots.size() == position / snapshotInterval)
+            saveSnapshot();
+        return result;
+    }
+
+    /**
+     * Applies all remaining moves.
+     * @return state of the game after the last move.
+     */
+    public GameSession.State runToEnd()
+    {
+        while (position < fields.length)
+            step();
+        return session.getState();
+    }
+
+    /**
+     * Brings board to state after given number of moves, starting from the nearest snapshot.
+     * List of changes of board is cleared if snapshot was restored, so view should refresh whole board.
+     * @param move number of moves to apply, from 0 to number of moves in log.
+     */
+    public void seek(int move)
+    {
+        move = Math.max(0, Math.min(move, fields.length));
+        int snapshot = Math.min(move / snapshotInterval, snapshots.size() - 1);
+        if (move < position || snapshot * snapshotInterval > position)
+        {
+            board.restore(snapshots.get(snapshot));
+            session.restore(states.get(snapshot), sessionMoves.get(snapshot));
+            position = snapshot * snapshotInterval;
+        }
+        while (position < move)
+            step();
+    }
+
+    /**
+     * Returns number of moves already applied.
+     * @return position in log.
+     */
+    public int getPosition()
+    {
+        return position;
+    }
+
+    /**
+     * Returns number of moves in replay.
+     * @return number of moves.
+     */
+    public int getMoveCount()
+    {
+        return fields.length;
+    }
+
+    /**
+     * Returns time of move since start of the game.
+     * @param move number of move (counting from 0).
+     * @return time in milliseconds.
+     */
+    public long getTime(int move)
+    {
+        return times[move];
+    }
+
+    /**
+     * Returns board of replay.
+     * @return board.
+     */
+    public Board getBoard()
+    {
+        return board;
+    }
+
+    /**
+     * Returns session of replay.
+     * @return session.
+     */
+    public GameSession getSession()
+    {
+        return session;
+    }
+
+    /**
+     * Saves snapshot of board and state of the game at current position.
+     */
+    private void saveSnapshot()
+    {
+        snapshots.add(board.snapshot());
+        states.add(session.getState());
+        sessionMoves.add(session.getMoves());
+    }
+}
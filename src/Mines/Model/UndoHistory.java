@@ -0,0 +1,164 @@
+package Mines.Model;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * History of moves of <code>GameSession</code> which can be undone and redone.
+ *
+ * Every move is kept as reversible delta: indices of fields changed by move and their bytes from before
+ * the move, recorded by board while move is made, together with counters of board and state of the game.
+ * Memory of a step and time of undoing it are proportional to number of changed fields.
+ * Only undoing the first uncover, which placed mines, clears whole board. Undone moves are redone
+ * by making them again, which gives the same result, because board is in the same state.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+class UndoHistory
+{
+    static final int MAX_STEPS = 10000;
+
+    private Deque<Step> undoSteps = new ArrayDeque<>();
+    private Deque<Step> redoSteps = new ArrayDeque<>();
+    private Step current;
+
+    /**
+     * Single move with fields it changed.
+     */
+    static class Step
+    {
+        final int action;
+        final int x;
+        final int y;
+        final GameSession.State state;
+        final int moves;
+        final int minesLeft;
+        final int coveredSafeFields;
+        boolean initiated;
+
+        private CellList fields = new CellList();
+        private byte[] before = new byte[8];
+
+        Step(int action, int x, int y, GameSession.State state, int moves, int minesLeft, int coveredSafeFields)
+        {
+            this.action = action;
+            this.x = x;
+            this.y = y;
+            this.state = state;
+            this.moves = moves;
+            this.minesLeft = minesLeft;
+            this.coveredSafeFields = coveredSafeFields;
+        }
+
+        /**
+         * Saves field before it is changed. Board calls it once for every changed field.
+         * @param index index of field.
+         * @param value byte of field before change.
+         */
+        void save(int index, byte value)
+        {
+            if (fields.size() == before.length)
+                before = Arrays.copyOf(before, before.length * 2);
+            before[fields.size()] = value;
+            fields.add(index);
+        }
+    }
+
+    /**
+     * Starts recording move which is about to be made on board. Fields changed by board after this call,
+     * also after the move, e.g. by <code>showAllMined</code>, are recorded until next move starts.
+     * @param board board of the game.
+     * @param action one of <code>MoveLog</code> actions.
+     * @param x vertical position of field (counting from 0).
+     * @param y horizontal position of field (counting from 0).
+     * @param state state of the game before the move.
+     * @param moves number of moves before the move.
+     */
+    void begin(Board board, int action, int x, int y, GameSession.State state, int moves)
+    {
+        current = new Step(action, x, y, state, moves, board.getMinesLeft(), board.getCoveredSafeFields());
+        board.recording = current;
+    }
+
+    /**
+     * Finishes recording of move started by <code>begin</code>.
+     * @param board board of the game.
+     * @param changed whether move changed board, if not it is forgotten.
+     * @param redo whether move was redone, otherwise moves which could be redone are forgotten.
+     */
+    void end(Board board, boolean changed, boolean redo)
+    {
+        if (!changed)
+        {
+            board.recording = null;
+            current = null;
+            return;
+        }
+
+        if (!redo)
+            redoSteps.clear();
+        undoSteps.push(current);
+        if (undoSteps.size() > MAX_STEPS)
+            undoSteps.removeLast();
+    }
+
+    /**
+     * Brings board to state from before the last move and moves it to redo list.
+     * Changed fields are added to changes of board.
+     * @param board board of the game.
+     * @return undone step or <code>null</code> if there is nothing to undo.
+     */
+    Step undo(Board board)
+    {
+        Step step = undoSteps.poll();
+        if (step == null)
+            return null;
+
+        board.recording = null;
+        current = null;
+        board.undo(step.fields, step.before, step.minesLeft, step.coveredSafeFields, step.initiated);
+        redoSteps.push(step);
+        return step;
+    }
+
+    /**
+     * Takes the last undone step, which should be then made again.
+     * @return step to redo or <code>null</code> if there is nothing to redo.
+     */
+    Step redo()
+    {
+        return redoSteps.poll();
+    }
+
+    /**
+     * Checks whether there is move to undo.
+     * @return <code>true</code> if undo is possible.
+     */
+    boolean canUndo()
+    {
+        return !undoSteps.isEmpty();
+    }
+
+    /**
+     * Checks whether there is move to redo.
+     * @return <code>true</code> if redo is possible.
+     */
+    boolean canRedo()
+    {
+        return !redoSteps.isEmpty();
+    }
+
+    /**
+     * Forgets all moves, e.g. when new game is started.
+     * @param board board of the game.
+     */
+    void clear(Board board)
+    {
+        undoSteps.clear();
+        redoSteps.clear();
+        current = null;
+        board.recording = null;
+    }
+}
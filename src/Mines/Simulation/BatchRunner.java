@@ -0,0 +1,166 @@
+package Mines.Simulation;
+
+import Mines.Model.Board;
+import Mines.Model.GameSession;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games without user interface, in parallel on a fork-join pool, and gathers their statistics.
+ *
+ * Games are numbered and seed of each game is derived from seed of the batch and its number,
+ * so results don't depend on number of threads nor on order in which games are played.
+ * Range of games is split into tasks, every task plays its games on its own board and player
+ * and statistics of tasks are merged at the end, so workers share no state while playing.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class BatchRunner
+{
+    private static final int GAMES_PER_TASK = 256;
+    private static final long PLAYER_SALT = 0x5DEECE66DL;
+
+    private int height;
+    private int width;
+    private int minesNumber;
+    private long seed;
+    private Supplier<Player> players;
+
+    /**
+     * Creates runner of games on boards with given parameters.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param seed seed of the batch.
+     * @param players creates player for every task, so players don't need to be thread-safe.
+     */
+    public BatchRunner(int height, int width, int minesNumber, long seed, Supplier<Player> players)
+    {
+        this.height = height;
+        this.width = width;
+        this.minesNumber = minesNumber;
+        this.seed = seed;
+        this.players = players;
+    }
+
+    /**
+     * Plays given number of games.
+     * @param games number of games.
+     * @param threads number of worker threads.
+     * @return statistics of all games.
+     */
+    public BatchStatistics run(long games, int threads)
+    {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try
+        {
+            return pool.invoke(new Batch(0, games));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns seed of game with given number, mixing bits of batch seed and number of game.
+     * @param seed seed of the batch.
+     * @param game number of game.
+     * @return seed of the game.
+     */
+    public static long gameSeed(long seed, long game)
+    {
+        long mixed = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        mixed = (mixed ^ mixed >>> 30) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ mixed >>> 27) * 0x94D049BB133111EBL;
+        return mixed ^ mixed >>> 31;
+    }
+
+    /**
+     * Task playing range of games. Big ranges are split in halves played in parallel.
+     */
+    private class Batch extends RecursiveTask<BatchStatistics>
+    {
+        private final long first;
+        private final long last;
+
+        /**
+         * Creates task playing games from <code>first</code> to <code>last - 1</code>.
+         * @param first number of first game.
+         * @param last number of game after the last one.
+         */
+        Batch(long first, long last)
+        {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected BatchStatistics compute()
+        {
+            if (last - first > GAMES_PER_TASK)
+            {
+                long middle = (first + last) >>> 1;
+                Batch left = new Batch(first, middle);
+                left.fork();
+                BatchStatistics right = new Batch(middle, last).compute();
+                return left.join().merge(right);
+            }
+
+            BatchStatistics statistics = new BatchStatistics();
+            GameSession session = new GameSession(new Board());
+            session.setUndoEnabled(false);
+            Player player = players.get();
+            int safeFields = height * width - minesNumber;
+            for (long game = first; game < last; game++)
+            {
+                long gameSeed = gameSeed(seed, game);
+                long start = System.nanoTime();
+                session.newGame(height, width, minesNumber, gameSeed);
+                player.play(session, new SplittableRandom(gameSeed ^ PLAYER_SALT));
+                long nanos = System.nanoTime() - start;
+
+                statistics.addGame(session.getState() == GameSession.State.WON, session.getMoves(),
+                        safeFields - session.getBoard().getCoveredSafeFields(), safeFields, nanos);
+            }
+            return statistics;
+        }
+    }
+
+    /**
+     * Runs batch from command line.
+     * Arguments: height width mines games [seed] [threads] [random|solver].
+     * @param args command line arguments.
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 4)
+        {
+            System.err.println("Usage: BatchRunner height width mines games [seed] [threads] [random|solver]");
+            return;
+        }
+
+        int height = Integer.parseInt(args[0]);
+        int width = Integer.parseInt(args[1]);
+        int minesNumber = Integer.parseInt(args[2]);
+        long games = Long.parseLong(args[3]);
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        boolean solver = args.length > 6 && args[6].equals("solver");
+
+        BatchRunner runner = new BatchRunner(height, width, minesNumber, seed,
+                solver ? SolverPlayer::new : RandomPlayer::new);
+        long start = System.nanoTime();
+        BatchStatistics statistics = runner.run(games, threads);
+        long nanos = System.nanoTime() - start;
+
+        System.out.println("Seed: " + seed + ", threads: " + threads);
+        System.out.print(statistics);
+        System.out.println(String.format("Wall time: %.3f s, %.0f games/s", nanos / 1e9, games / (nanos / 1e9)));
+    }
+}
@@ -0,0 +1,182 @@
+package Mines.Simulation;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of many games played by <code>BatchRunner</code>.
+ * Every worker fills its own object, which are merged when workers finish.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class BatchStatistics
+{
+    /* histogram of revealed safe fields has one bucket per percent */
+    public static final int REVEALED_BUCKETS = 101;
+    /* histogram of game times has one bucket per power of two nanoseconds */
+    public static final int TIME_BUCKETS = 64;
+
+    private long games;
+    private long wins;
+    private long clicks;
+    private long totalNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+    private long[] revealed = new long[REVEALED_BUCKETS];
+    private long[] times = new long[TIME_BUCKETS];
+
+    /**
+     * Adds result of single game.
+     * @param won whether game was won.
+     * @param moves number of moves made in game.
+     * @param revealedFields number of non-mined fields uncovered when game ended.
+     * @param safeFields number of non-mined fields on board.
+     * @param nanos time of the game in nanoseconds.
+     */
+    void addGame(boolean won, int moves, int revealedFields, int safeFields, long nanos)
+    {
+        games++;
+        if (won)
+            wins++;
+        clicks += moves;
+        revealed[(int)(100L * revealedFields / safeFields)]++;
+
+        totalNanos += nanos;
+        minNanos = Math.min(minNanos, nanos);
+        maxNanos = Math.max(maxNanos, nanos);
+        times[63 - Long.numberOfLeadingZeros(Math.max(1, nanos))]++;
+    }
+
+    /**
+     * Adds statistics of other worker to this object.
+     * @param other statistics to add.
+     * @return this object.
+     */
+    BatchStatistics merge(BatchStatistics other)
+    {
+        games += other.games;
+        wins += other.wins;
+        clicks += other.clicks;
+        totalNanos += other.totalNanos;
+        minNanos = Math.min(minNanos, other.minNanos);
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+        for (int bucket = 0; bucket < REVEALED_BUCKETS; bucket++)
+            revealed[bucket] += other.revealed[bucket];
+        for (int bucket = 0; bucket < TIME_BUCKETS; bucket++)
+            times[bucket] += other.times[bucket];
+        return this;
+    }
+
+    /**
+     * Returns number of played games.
+     * @return number of games.
+     */
+    public long getGames()
+    {
+        return games;
+    }
+
+    /**
+     * Returns number of won games.
+     * @return number of wins.
+     */
+    public long getWins()
+    {
+        return wins;
+    }
+
+    /**
+     * Returns number of lost games.
+     * @return number of losses.
+     */
+    public long getLosses()
+    {
+        return games - wins;
+    }
+
+    /**
+     * Returns number of moves made in all games.
+     * @return number of moves.
+     */
+    public long getClicks()
+    {
+        return clicks;
+    }
+
+    /**
+     * Returns time of all games summed up.
+     * @return time in nanoseconds.
+     */
+    public long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    /**
+     * Returns time of the shortest game.
+     * @return time in nanoseconds.
+     */
+    public long getMinNanos()
+    {
+        return games == 0 ? 0 : minNanos;
+    }
+
+    /**
+     * Returns time of the longest game.
+     * @return time in nanoseconds.
+     */
+    public long getMaxNanos()
+    {
+        return maxNanos;
+    }
+
+    /**
+     * Returns histogram of games by percent of non-mined fields uncovered at the end.
+     * @return copy of histogram, bucket <code>p</code> counts games with <code>p</code> percent uncovered.
+     */
+    public long[] getRevealedHistogram()
+    {
+        return Arrays.copyOf(revealed, REVEALED_BUCKETS);
+    }
+
+    /**
+     * Returns histogram of game times.
+     * @return copy of histogram, bucket <code>b</code> counts games that took from
+     * <code>2^b</code> to <code>2^(b+1) - 1</code> nanoseconds.
+     */
+    public long[] getTimeHistogram()
+    {
+        return Arrays.copyOf(times, TIME_BUCKETS);
+    }
+
+    /**
+     * Function returns <code>String</code> with summary of statistics and non-empty buckets of histograms.
+     * @return text of statistics.
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder();
+        text.append("Games: ").append(games)
+                .append(", won: ").append(wins)
+                .append(String.format(" (%.2f%%)", games == 0 ? 0.0 : 100.0 * wins / games))
+                .append(", lost: ").append(getLosses()).append('\n');
+        text.append("Clicks: ").append(clicks)
+                .append(String.format(", per game: %.2f", games == 0 ? 0.0 : (double)clicks / games)).append('\n');
+        text.append(String.format("Time per game: avg %.1f us, min %.1f us, max %.1f us%n",
+                games == 0 ? 0.0 : totalNanos / 1000.0 / games, getMinNanos() / 1000.0, maxNanos / 1000.0));
+
+        text.append("Uncovered fields [%]:");
+        for (int bucket = 0; bucket < REVEALED_BUCKETS; bucket++)
+            if (revealed[bucket] != 0)
+                text.append(' ').append(bucket).append('=').append(revealed[bucket]);
+        text.append('\n');
+
+        text.append("Game time [ns, from 2^b]:");
+        for (int bucket = 0; bucket < TIME_BUCKETS; bucket++)
+            if (times[bucket] != 0)
+                text.append(' ').append(bucket).append('=').append(times[bucket]);
+        text.append('\n');
+        return text.toString();
+    }
+}
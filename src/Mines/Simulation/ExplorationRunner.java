@@ -0,0 +1,201 @@
+package Mines.Simulation;
+
+import Mines.Model.ChunkedBoard;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static Mines.Model.ChunkedBoard.*;
+
+/**
+ * Explores unbounded <code>ChunkedBoard</code> without user interface, until given number of fields
+ * is uncovered or mine is hit.
+ *
+ * Player keeps set of uncovered fields with covered fields around. Field with as many flags around as mines
+ * is chorded, field with as many covered fields around as mines gets them flagged. When neither rule
+ * can be applied anywhere, covered field next to random field of the set is uncovered.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class ExplorationRunner
+{
+    private ChunkedBoard board = new ChunkedBoard();
+    private SplittableRandom random;
+    private Set<Long> frontier = new LinkedHashSet<>();
+    private int guesses;
+    private boolean lost;
+
+    /**
+     * Creates runner exploring board of given density and seed.
+     * @param density probability that a field is mined.
+     * @param seed seed of the board and of guesses.
+     */
+    public ExplorationRunner(double density, long seed)
+    {
+        board.newGame(density, seed);
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Explores board starting in point (0, 0).
+     * @param targetFields number of uncovered fields after which exploration stops.
+     * @return <code>true</code> if target was reached or <code>false</code> if mine was hit.
+     */
+    public boolean explore(long targetFields)
+    {
+        uncover(0, 0, false);
+        while (!lost && board.getUncoveredFields() < targetFields)
+        {
+            if (!applyRules() && !guess())
+                break;
+        }
+        return !lost;
+    }
+
+    /**
+     * Applies both rules to every field of frontier once.
+     * @return <code>true</code> if board was changed.
+     */
+    private boolean applyRules()
+    {
+        boolean changed = false;
+        for (long point: new ArrayList<>(frontier))
+        {
+            if (lost)
+                break;
+
+            int posX = pointX(point);
+            int posY = pointY(point);
+            int covered = 0;
+            int flagged = 0;
+            for (int x = posX - 1; x <= posX + 1; x++)
+            {
+                for (int y = posY - 1; y <= posY + 1; y++)
+                {
+                    if (board.isFlagged(x, y))
+                        flagged++;
+                    else if (!board.isUncovered(x, y))
+                        covered++;
+                }
+            }
+
+            int mines = board.getNearbyMines(posX, posY);
+            if (covered == 0)
+            {
+                frontier.remove(point);
+            }
+            else if (flagged == mines)
+            {
+                uncover(posX, posY, true);
+                changed = true;
+            }
+            else if (flagged + covered == mines)
+            {
+                for (int x = posX - 1; x <= posX + 1; x++)
+                    for (int y = posY - 1; y <= posY + 1; y++)
+                        if (!board.isFlagged(x, y) && !board.isUncovered(x, y))
+                            board.toggleFlag(x, y);
+                frontier.remove(point);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Uncovers random covered field next to random field of frontier.
+     * @return <code>false</code> if frontier has no covered fields around.
+     */
+    private boolean guess()
+    {
+        List<Long> candidates = new ArrayList<>();
+        while (candidates.isEmpty())
+        {
+            if (frontier.isEmpty())
+                return false;
+
+            List<Long> points = new ArrayList<>(frontier);
+            long point = points.get(random.nextInt(points.size()));
+            for (int x = pointX(point) - 1; x <= pointX(point) + 1; x++)
+                for (int y = pointY(point) - 1; y <= pointY(point) + 1; y++)
+                    if (!board.isFlagged(x, y) && !board.isUncovered(x, y))
+                        candidates.add(point(x, y));
+            if (candidates.isEmpty())
+                frontier.remove(point);
+        }
+
+        long chosen = candidates.get(random.nextInt(candidates.size()));
+        guesses++;
+        uncover(pointX(chosen), pointY(chosen), false);
+        return true;
+    }
+
+    /**
+     * Uncovers field or fields around it and adds uncovered fields with mines around to frontier.
+     * @param x vertical position of field.
+     * @param y horizontal position of field.
+     * @param around whether fields around are uncovered.
+     */
+    private void uncover(int x, int y, boolean around)
+    {
+        lost = around ? board.uncoverAround(x, y) : board.uncover(x, y);
+        for (int position = 0; position < board.getRevealedCount(); position++)
+        {
+            long point = board.getRevealed(position);
+            if (board.getNearbyMines(pointX(point), pointY(point)) > 0)
+                frontier.add(point);
+        }
+    }
+
+    /**
+     * Returns explored board.
+     * @return board of the runner.
+     */
+    public ChunkedBoard getBoard()
+    {
+        return board;
+    }
+
+    /**
+     * Returns number of fields uncovered without certainty that they are safe.
+     * @return number of guesses.
+     */
+    public int getGuesses()
+    {
+        return guesses;
+    }
+
+    /**
+     * Runs exploration from command line.
+     * Arguments: fields [density] [seed].
+     * @param args command line arguments.
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: ExplorationRunner fields [density] [seed]");
+            return;
+        }
+
+        long fields = Long.parseLong(args[0]);
+        double density = args.length > 1 ? Double.parseDouble(args[1]) : MIN_DENSITY;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        ExplorationRunner runner = new ExplorationRunner(density, seed);
+        long start = System.nanoTime();
+        boolean reached = runner.explore(fields);
+        long nanos = System.nanoTime() - start;
+
+        ChunkedBoard board = runner.getBoard();
+        System.out.println("Seed: " + seed + ", density: " + density);
+        System.out.println((reached ? "Target reached" : "Mine hit") + ": " + board.getUncoveredFields()
+                + " fields uncovered, " + board.getFlags() + " flags, " + runner.getGuesses() + " guesses");
+        System.out.println(String.format("Chunks: %d, %d of them with fields (%d KB of data), time: %.3f s",
+                board.getChunkCount(), board.getCountedChunkCount(), board.getDataSize() / 1024, nanos / 1e9));
+    }
+}
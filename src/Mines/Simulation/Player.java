@@ -0,0 +1,22 @@
+package Mines.Simulation;
+
+import Mines.Model.GameSession;
+
+import java.util.SplittableRandom;
+
+/**
+ * Strategy of playing a game without user, used by <code>BatchRunner</code>.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public interface Player
+{
+    /**
+     * Makes moves in given session until the game is won or lost.
+     * Session has new game started, but no field uncovered.
+     * @param session session to play in.
+     * @param random generator for random decisions, seeded separately for every game.
+     */
+    void play(GameSession session, SplittableRandom random);
+}
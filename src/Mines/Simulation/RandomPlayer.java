@@ -0,0 +1,31 @@
+package Mines.Simulation;
+
+import Mines.Model.Board;
+import Mines.Model.GameSession;
+
+import java.util.SplittableRandom;
+
+/**
+ * Player which uncovers random covered fields until the game ends.
+ * It is the baseline other players are compared against.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class RandomPlayer implements Player
+{
+    @Override
+    public void play(GameSession session, SplittableRandom random)
+    {
+        Board board = session.getBoard();
+        int fields = board.getHeight() * board.getWidth();
+        while (!session.isOver())
+        {
+            /* random field, then next covered one after it */
+            int index = random.nextInt(fields);
+            while (board.isUncovered(index / board.getWidth(), index % board.getWidth()))
+                index = (index + 1) % fields;
+            session.reveal(index / board.getWidth(), index % board.getWidth());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package Mines.Simulation;
+
+import Mines.Model.Board;
+import Mines.Model.GameSession;
+import Mines.Model.MoveResult;
+import Mines.Solver.ProbabilityEngine;
+import Mines.Solver.Solver;
+
+import java.util.SplittableRandom;
+
+/**
+ * Player which uncovers fields found safe by <code>Solver</code> and, when solver finds nothing,
+ * guesses field with the lowest probability of mine computed by <code>ProbabilityEngine</code>.
+ * Solver is updated only with fields changed by each move.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class SolverPlayer implements Player
+{
+    private Solver solver;
+    private ProbabilityEngine engine;
+    private Board solvedBoard;
+
+    @Override
+    public void play(GameSession session, SplittableRandom random)
+    {
+        Board board = session.getBoard();
+        if (board != solvedBoard)
+        {
+            solver = new Solver(board);
+            engine = new ProbabilityEngine(board, solver);
+            solvedBoard = board;
+        }
+        solver.reset();
+        engine.reset();
+
+        int width = board.getWidth();
+        MoveResult result = session.reveal(random.nextInt(board.getHeight()), random.nextInt(width));
+        while (!session.isOver())
+        {
+            solver.update(result.getRevealed());
+            solver.solve();
+
+            int field = solver.nextSafe();
+            if (field < 0)
+                field = guess(board, random);
+            result = session.reveal(field / width, field % width);
+        }
+    }
+
+    /**
+     * Chooses unknown field which is the least likely to be mined.
+     * @param board board of the game.
+     * @param random generator for random decisions, used if probabilities can't be computed.
+     * @return index of field.
+     */
+    private int guess(Board board, SplittableRandom random)
+    {
+        engine.compute();
+        int index = engine.getSafestField();
+        return index >= 0 ? index : randomGuess(board, random);
+    }
+
+    /**
+     * Chooses random field about which solver knows nothing.
+     * @param board board of the game.
+     * @param random generator for random decisions.
+     * @return index of field.
+     */
+    private int randomGuess(Board board, SplittableRandom random)
+    {
+        int fields = board.getHeight() * board.getWidth();
+        int index = random.nextInt(fields);
+        for (int counter = 0; counter < fields && !solver.isUnknown(index); counter++)
+            index = (index + 1) % fields;
+        return index;
+    }
+}
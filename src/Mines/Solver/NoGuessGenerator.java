@@ -0,0 +1,232 @@
+package Mines.Solver;
+
+import Mines.Model.Board;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds boards which can be solved from the first click by logic alone, without guessing.
+ *
+ * Layout of board depends only on its seed and the first uncovered field, so generator checks
+ * candidate seeds derived from given seed: every candidate board is uncovered at the first click
+ * and played by <code>Solver</code>, and it passes if solver uncovers all non-mined fields.
+ * Several workers check different candidates in parallel and the first passing seed is taken.
+ * If no candidate passes before timeout, given seed is returned, and search can be continued
+ * from seed <code>candidateSeed(seed, attempts)</code>, which wasn't checked yet.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class NoGuessGenerator
+{
+    private ForkJoinPool pool;
+    private int workers;
+
+    private AtomicLong totalAttempts = new AtomicLong();
+    private AtomicLong totalRejected = new AtomicLong();
+
+    /**
+     * Result of single search for no-guess board.
+     */
+    public static class Result
+    {
+        private final long seed;
+        private final boolean noGuess;
+        private final long attempts;
+        private final long nanos;
+
+        Result(long seed, boolean noGuess, long attempts, long nanos)
+        {
+            this.seed = seed;
+            this.noGuess = noGuess;
+            this.attempts = attempts;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Returns seed of found board, or given seed if search timed out.
+         * @return seed of the board.
+         */
+        public long getSeed()
+        {
+            return seed;
+        }
+
+        /**
+         * Checks whether board of returned seed can be solved without guessing.
+         * @return <code>true</code> if board was found or <code>false</code> if search timed out.
+         */
+        public boolean isNoGuess()
+        {
+            return noGuess;
+        }
+
+        /**
+         * Returns number of checked candidates, including the passing one.
+         * @return number of attempts.
+         */
+        public long getAttempts()
+        {
+            return attempts;
+        }
+
+        /**
+         * Returns time of the search.
+         * @return time in nanoseconds.
+         */
+        public long getNanos()
+        {
+            return nanos;
+        }
+
+        /**
+         * Function returns <code>String</code> with summary of the search.
+         * @return text of result.
+         */
+        @Override
+        public String toString()
+        {
+            return String.format("seed %d, %s after %d attempts in %.1f ms", seed,
+                    noGuess ? "found" : "timed out", attempts, nanos / 1e6);
+        }
+    }
+
+    /**
+     * Creates generator with one worker per available processor.
+     */
+    public NoGuessGenerator()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates generator with given number of workers.
+     * @param workers number of candidates checked in parallel.
+     */
+    public NoGuessGenerator(int workers)
+    {
+        this.workers = workers;
+        this.pool = new ForkJoinPool(workers);
+    }
+
+    /**
+     * Searches for seed of no-guess board with given parameters and first click.
+     * @param height height of board.
+     * @param width width of board.
+     * @param minesNumber number of mines in the board.
+     * @param seed seed from which candidate seeds are derived.
+     * @param startX vertical position of the first click (counting from 0).
+     * @param startY horizontal position of the first click (counting from 0).
+     * @param timeoutMillis time after which search is abandoned.
+     * @return result of the search.
+     */
+    public Result generate(int height, int width, int minesNumber, long seed, int startX, int startY,
+                           long timeoutMillis)
+    {
+        long start = System.nanoTime();
+        long deadline = start + timeoutMillis * 1000000L;
+        AtomicBoolean found = new AtomicBoolean();
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong foundSeed = new AtomicLong(seed);
+
+        RecursiveAction[] tasks = new RecursiveAction[workers];
+        for (int worker = 0; worker < workers; worker++)
+        {
+            tasks[worker] = new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    Board board = new Board();
+                    Solver solver = new Solver(board);
+                    while (!found.get() && System.nanoTime() - deadline < 0)
+                    {
+                        long candidate = candidateSeed(seed, attempts.getAndIncrement());
+                        board.newGame(height, width, minesNumber, candidate);
+                        if (isSolvable(board, solver, startX, startY) && found.compareAndSet(false, true))
+                            foundSeed.set(candidate);
+                    }
+                }
+            };
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        long checked = attempts.get();
+        totalAttempts.addAndGet(checked);
+        totalRejected.addAndGet(found.get() ? checked - 1 : checked);
+        return new Result(foundSeed.get(), found.get(), checked, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns number of candidates checked by all searches.
+     * @return number of attempts.
+     */
+    public long getTotalAttempts()
+    {
+        return totalAttempts.get();
+    }
+
+    /**
+     * Returns part of checked candidates which needed guessing.
+     * @return rejection rate from 0 to 1.
+     */
+    public double getRejectionRate()
+    {
+        long attempts = totalAttempts.get();
+        return attempts == 0 ? 0 : (double) totalRejected.get() / attempts;
+    }
+
+    /**
+     * Stops worker threads. Generator can't be used afterwards.
+     */
+    public void shutdown()
+    {
+        pool.shutdown();
+    }
+
+    /**
+     * Checks whether board can be solved by solver from given first click.
+     * @param board new board, not initiated yet.
+     * @param solver solver of the board.
+     * @param startX vertical position of the first click (counting from 0).
+     * @param startY horizontal position of the first click (counting from 0).
+     * @return <code>true</code> if all non-mined fields were uncovered without guessing.
+     */
+    static boolean isSolvable(Board board, Solver solver, int startX, int startY)
+    {
+        int width = board.getWidth();
+        solver.reset();
+        board.uncover(startX, startY);
+        solver.update(board.getRevealed());
+        solver.solve();
+        for (int field = solver.nextSafe(); field >= 0; field = solver.nextSafe())
+        {
+            board.uncover(field / width, field % width);
+            solver.update(board.getRevealed());
+            solver.solve();
+        }
+        return board.isGameWon();
+    }
+
+    /**
+     * Returns seed of candidate with given number, mixing bits of seed and number of candidate.
+     * @param seed seed of the search.
+     * @param attempt number of candidate.
+     * @return seed of the candidate.
+     */
+    public static long candidateSeed(long seed, long attempt)
+    {
+        if (attempt == 0)
+            return seed;
+        long mixed = seed + attempt * 0x9E3779B97F4A7C15L;
+        mixed = (mixed ^ mixed >>> 30) * 0xBF58476D1CE4E5B9L;
+        mixed = (mixed ^ mixed >>> 27) * 0x94D049BB133111EBL;
+        return mixed ^ mixed >>> 31;
+    }
+}
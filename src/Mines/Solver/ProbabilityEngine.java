@@ -0,0 +1,609 @@
+package Mines.Solver;
+
+import Mines.Model.Board;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes exact probability that covered fields are mined, for situations in which
+ * <code>Solver</code> can't find any safe field.
+ *
+ * Constraints of frontier are split into independent components, i.e. groups of unknown fields
+ * connected by common constraints. Every component is enumerated separately, counting its solutions
+ * by number of mines used, and results are remembered, so unchanged components are not enumerated again.
+ * Components are then combined with the number of mines left on board: configuration which puts
+ * <code>k</code> mines on frontier is weighted by number of ways to put the other mines on fields
+ * not adjacent to frontier. Big components are enumerated in parallel on a fork-join pool.
+ * Enumeration of component gives up after <code>MAX_SEARCH_NODES</code> steps, and then probabilities
+ * of its fields are fitted to their constraints and fields are treated as mined independently.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class ProbabilityEngine
+{
+    /* components with fewer fields are enumerated in calling thread */
+    private static final int PARALLEL_FIELDS = 20;
+    private static final int MAX_CACHED = 4096;
+    /* steps of search after which component is approximated instead of enumerated */
+    private static final long MAX_SEARCH_NODES = 1L << 22;
+    private static final int FITTING_ITERATIONS = 50;
+
+    private Board board;
+    private Solver solver;
+    private ForkJoinPool pool;
+    private Map<String, Enumeration> cache = new HashMap<>();
+
+    private Map<Integer, Double> probabilities = new HashMap<>();
+    private double interiorProbability;
+    private int interiorField;
+
+    /**
+     * Numbers of solutions of single component.
+     * <code>solutions[k]</code> is number of solutions with <code>k</code> mines (scaled by common factor),
+     * <code>mined[v][k]</code> is number of these solutions in which field <code>v</code> is mined.
+     */
+    private static class Enumeration
+    {
+        double[] solutions;
+        double[][] mined;
+        long nodes;
+    }
+
+    /**
+     * Group of unknown fields connected by constraints.
+     */
+    private static class Component
+    {
+        int[] fields;
+        List<int[]> constraints = new ArrayList<>();
+        List<Integer> mines = new ArrayList<>();
+        Enumeration enumeration;
+        String key;
+    }
+
+    /**
+     * Creates engine using knowledge of given solver, with common fork-join pool.
+     * @param board board being solved.
+     * @param solver solver of the board.
+     */
+    public ProbabilityEngine(Board board, Solver solver)
+    {
+        this(board, solver, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates engine using knowledge of given solver.
+     * @param board board being solved.
+     * @param solver solver of the board.
+     * @param pool pool used to enumerate big components.
+     */
+    public ProbabilityEngine(Board board, Solver solver, ForkJoinPool pool)
+    {
+        this.board = board;
+        this.solver = solver;
+        this.pool = pool;
+    }
+
+    /**
+     * Forgets remembered components, should be called when new game is started.
+     */
+    public void reset()
+    {
+        cache.clear();
+    }
+
+    /**
+     * Computes probabilities of all unknown fields. Solver should be solved before.
+     * Results can be read with <code>getProbability</code> and <code>getSafestField</code>.
+     */
+    public void compute()
+    {
+        probabilities.clear();
+        List<Component> components = findComponents();
+
+        List<RecursiveAction> parallel = new ArrayList<>();
+        for (Component component: components)
+        {
+            component.enumeration = cache.get(component.key);
+            if (component.enumeration != null)
+                continue;
+
+            if (component.fields.length >= PARALLEL_FIELDS)
+                parallel.add(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        component.enumeration = enumerate(component);
+                    }
+                });
+            else
+                component.enumeration = enumerate(component);
+        }
+        if (!parallel.isEmpty())
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(parallel);
+                }
+            });
+
+        if (cache.size() > MAX_CACHED)
+            cache.clear();
+        for (Component component: components)
+            cache.put(component.key, component.enumeration);
+
+        combine(components);
+    }
+
+    /**
+     * Returns probability that field is mined, computed by last <code>compute</code>.
+     * @param index index of unknown field.
+     * @return probability from 0 to 1.
+     */
+    public double getProbability(int index)
+    {
+        Double probability = probabilities.get(index);
+        return probability != null ? probability : interiorProbability;
+    }
+
+    /**
+     * Returns unknown field with the lowest probability of mine, computed by last <code>compute</code>.
+     * @return index of field or -1 if there is no unknown field.
+     */
+    public int getSafestField()
+    {
+        int safest = interiorField;
+        double lowest = interiorField >= 0 ? interiorProbability : 2;
+        for (Map.Entry<Integer, Double> entry: probabilities.entrySet())
+        {
+            if (entry.getValue() < lowest)
+            {
+                lowest = entry.getValue();
+                safest = entry.getKey();
+            }
+        }
+        return safest;
+    }
+
+    /**
+     * Builds components from constraints of frontier, joining fields of every constraint with union-find.
+     * @return list of components.
+     */
+    private List<Component> findComponents()
+    {
+        Map<Integer, Integer> fieldIds = new HashMap<>();
+        List<Integer> fields = new ArrayList<>();
+        List<int[]> constraints = new ArrayList<>();
+        List<Integer> mines = new ArrayList<>();
+        int[] neighbours = new int[8];
+
+        for (int position = 0; position < solver.getFrontierSize(); position++)
+        {
+            int index = solver.getFrontierField(position);
+            int count = solver.getUnknownNeighbours(index, neighbours);
+            if (count == 0)
+                continue;
+
+            int[] constraint = Arrays.copyOf(neighbours, count);
+            Arrays.sort(constraint);
+            constraints.add(constraint);
+            mines.add(solver.getRemainingMines(index));
+            for (int field: constraint)
+            {
+                if (!fieldIds.containsKey(field))
+                {
+                    fieldIds.put(field, fields.size());
+                    fields.add(field);
+                }
+            }
+        }
+
+        int[] parent = new int[fields.size()];
+        for (int id = 0; id < parent.length; id++)
+            parent[id] = id;
+        for (int[] constraint: constraints)
+            for (int field: constraint)
+                parent[find(parent, fieldIds.get(field))] = find(parent, fieldIds.get(constraint[0]));
+
+        Map<Integer, Component> byRoot = new LinkedHashMap<>();
+        Map<Integer, List<Integer>> fieldsByRoot = new HashMap<>();
+        for (int id = 0; id < parent.length; id++)
+            fieldsByRoot.computeIfAbsent(find(parent, id), root -> new ArrayList<>()).add(fields.get(id));
+        for (int counter = 0; counter < constraints.size(); counter++)
+        {
+            int root = find(parent, fieldIds.get(constraints.get(counter)[0]));
+            Component component = byRoot.computeIfAbsent(root, key -> new Component());
+            component.constraints.add(constraints.get(counter));
+            component.mines.add(mines.get(counter));
+        }
+
+        for (Map.Entry<Integer, Component> entry: byRoot.entrySet())
+        {
+            Component component = entry.getValue();
+            List<Integer> componentFields = fieldsByRoot.get(entry.getKey());
+            component.fields = new int[componentFields.size()];
+            for (int counter = 0; counter < component.fields.length; counter++)
+                component.fields[counter] = componentFields.get(counter);
+            Arrays.sort(component.fields);
+            component.key = key(component);
+        }
+        return new ArrayList<>(byRoot.values());
+    }
+
+    /**
+     * Finds root of union-find tree, compressing path on the way.
+     * @param parent array of parents.
+     * @param id element.
+     * @return root of element's tree.
+     */
+    private static int find(int[] parent, int id)
+    {
+        while (parent[id] != id)
+        {
+            parent[id] = parent[parent[id]];
+            id = parent[id];
+        }
+        return id;
+    }
+
+    /**
+     * Describes component by its sorted constraints, so equal components have equal keys.
+     * @param component component to describe.
+     * @return key of component.
+     */
+    private static String key(Component component)
+    {
+        List<String> parts = new ArrayList<>();
+        for (int counter = 0; counter < component.constraints.size(); counter++)
+            parts.add(Arrays.toString(component.constraints.get(counter)) + "=" + component.mines.get(counter));
+        Collections.sort(parts);
+        return String.join(";", parts);
+    }
+
+    /**
+     * Enumerates all assignments of mines to fields of component which satisfy its constraints.
+     * Fields are assigned one by one, and assignment is abandoned as soon as any constraint
+     * has too many mines or can't get enough of them.
+     * @param component component to enumerate.
+     * @return numbers of solutions.
+     */
+    private static Enumeration enumerate(Component component)
+    {
+        int fieldCount = component.fields.length;
+        int constraintCount = component.constraints.size();
+
+        /* constraints of every field, as positions in component's lists */
+        int[][] fieldConstraints = new int[fieldCount][];
+        int[] constraintSizes = new int[fieldCount];
+        for (int counter = 0; counter < constraintCount; counter++)
+            for (int field: component.constraints.get(counter))
+                constraintSizes[Arrays.binarySearch(component.fields, field)]++;
+        for (int id = 0; id < fieldCount; id++)
+            fieldConstraints[id] = new int[constraintSizes[id]];
+        Arrays.fill(constraintSizes, 0);
+        for (int counter = 0; counter < constraintCount; counter++)
+        {
+            for (int field: component.constraints.get(counter))
+            {
+                int id = Arrays.binarySearch(component.fields, field);
+                fieldConstraints[id][constraintSizes[id]++] = counter;
+            }
+        }
+
+        int[] needed = new int[constraintCount];
+        int[] free = new int[constraintCount];
+        for (int counter = 0; counter < constraintCount; counter++)
+        {
+            needed[counter] = component.mines.get(counter);
+            free[counter] = component.constraints.get(counter).length;
+        }
+
+        Enumeration enumeration = new Enumeration();
+        enumeration.solutions = new double[fieldCount + 1];
+        enumeration.mined = new double[fieldCount][fieldCount + 1];
+        boolean[] assignment = new boolean[fieldCount];
+        search(0, 0, assignment, fieldConstraints, needed, free, enumeration);
+        if (enumeration.nodes > MAX_SEARCH_NODES)
+            return approximate(component, fieldConstraints);
+        return enumeration;
+    }
+
+    /**
+     * Approximates numbers of solutions of component too big to be enumerated. Probabilities of fields
+     * start from mean ratio of needed mines to fields of their constraints and are fitted to constraints
+     * iteratively. Then every field is treated as mined independently, so distribution of mines
+     * is computed like for tossed coins.
+     * @param component component to approximate.
+     * @param fieldConstraints constraints of every field.
+     * @return approximate numbers of solutions.
+     */
+    private static Enumeration approximate(Component component, int[][] fieldConstraints)
+    {
+        int fieldCount = component.fields.length;
+        double[] probabilities = new double[fieldCount];
+        for (int id = 0; id < fieldCount; id++)
+        {
+            for (int constraint: fieldConstraints[id])
+                probabilities[id] += (double) component.mines.get(constraint)
+                        / component.constraints.get(constraint).length;
+            probabilities[id] /= fieldConstraints[id].length;
+        }
+
+        /* every constraint scales probabilities of its fields to sum up to its mines, estimates are averaged */
+        int constraintCount = component.constraints.size();
+        double[] scales = new double[constraintCount];
+        for (int iteration = 0; iteration < FITTING_ITERATIONS; iteration++)
+        {
+            for (int constraint = 0; constraint < constraintCount; constraint++)
+            {
+                double sum = 0;
+                for (int field: component.constraints.get(constraint))
+                    sum += probabilities[Arrays.binarySearch(component.fields, field)];
+                scales[constraint] = sum > 0 ? component.mines.get(constraint) / sum : 1;
+            }
+            for (int id = 0; id < fieldCount; id++)
+            {
+                double estimate = 0;
+                for (int constraint: fieldConstraints[id])
+                    estimate += Math.min(1, probabilities[id] * scales[constraint]);
+                probabilities[id] = estimate / fieldConstraints[id].length;
+            }
+        }
+
+        Enumeration enumeration = new Enumeration();
+        enumeration.solutions = new double[fieldCount + 1];
+        enumeration.solutions[0] = 1;
+        for (int id = 0; id < fieldCount; id++)
+        {
+            double probability = probabilities[id];
+            for (int mines = id + 1; mines > 0; mines--)
+                enumeration.solutions[mines] = enumeration.solutions[mines] * (1 - probability)
+                        + enumeration.solutions[mines - 1] * probability;
+            enumeration.solutions[0] *= 1 - probability;
+        }
+
+        enumeration.mined = new double[fieldCount][fieldCount + 1];
+        double[] others = new double[fieldCount + 1];
+        for (int id = 0; id < fieldCount; id++)
+        {
+            double probability = probabilities[id];
+            /* distribution of other fields, taken out of the whole one from the more stable side */
+            if (probability <= 0.5)
+            {
+                for (int mines = 0; mines < fieldCount; mines++)
+                    others[mines] = (enumeration.solutions[mines]
+                            - (mines > 0 ? others[mines - 1] * probability : 0)) / (1 - probability);
+            }
+            else
+            {
+                for (int mines = fieldCount - 1; mines >= 0; mines--)
+                    others[mines] = (enumeration.solutions[mines + 1]
+                            - (mines < fieldCount - 1 ? others[mines + 1] * (1 - probability) : 0)) / probability;
+            }
+            for (int mines = 1; mines <= fieldCount; mines++)
+                enumeration.mined[id][mines] = Math.max(0, others[mines - 1] * probability);
+        }
+
+        /* coin tosses weight solutions by density, numbers of solutions don't, so density is divided out */
+        double expected = 0;
+        for (double probability: probabilities)
+            expected += probability;
+        double density = Math.min(Math.max(expected / fieldCount, 1e-9), 1 - 1e-9);
+        double odds = Math.log(density / (1 - density));
+        for (int mines = 0; mines <= fieldCount; mines++)
+        {
+            double exponent = -odds * (mines - expected);
+            enumeration.solutions[mines] = tilt(enumeration.solutions[mines], exponent);
+            for (int id = 0; id < fieldCount; id++)
+                enumeration.mined[id][mines] = tilt(enumeration.mined[id][mines], exponent);
+        }
+        return enumeration;
+    }
+
+    /**
+     * Multiplies value by exponential of exponent, without overflow when value is tiny.
+     * @param value non-negative value.
+     * @param exponent logarithm of factor.
+     * @return multiplied value.
+     */
+    private static double tilt(double value, double exponent)
+    {
+        return value > 0 ? Math.exp(Math.log(value) + exponent) : 0;
+    }
+
+    /**
+     * Recursively assigns field <code>id</code> and the following ones.
+     * @param id field to assign.
+     * @param mines mines assigned so far.
+     * @param assignment current assignment.
+     * @param fieldConstraints constraints of every field.
+     * @param needed mines still needed by every constraint.
+     * @param free unassigned fields of every constraint.
+     * @param enumeration numbers of solutions to fill.
+     */
+    private static void search(int id, int mines, boolean[] assignment, int[][] fieldConstraints,
+                               int[] needed, int[] free, Enumeration enumeration)
+    {
+        if (++enumeration.nodes > MAX_SEARCH_NODES)
+            return;
+
+        if (id == assignment.length)
+        {
+            enumeration.solutions[mines]++;
+            for (int field = 0; field < assignment.length; field++)
+                if (assignment[field])
+                    enumeration.mined[field][mines]++;
+            return;
+        }
+
+        for (int value = 0; value <= 1; value++)
+        {
+            boolean possible = true;
+            for (int constraint: fieldConstraints[id])
+            {
+                needed[constraint] -= value;
+                free[constraint]--;
+                if (needed[constraint] < 0 || needed[constraint] > free[constraint])
+                    possible = false;
+            }
+
+            if (possible)
+            {
+                assignment[id] = value == 1;
+                search(id + 1, mines + value, assignment, fieldConstraints, needed, free, enumeration);
+                assignment[id] = false;
+            }
+
+            for (int constraint: fieldConstraints[id])
+            {
+                needed[constraint] += value;
+                free[constraint]++;
+            }
+        }
+    }
+
+    /**
+     * Combines solutions of components with mines left outside of frontier and computes probabilities.
+     * @param components enumerated components.
+     */
+    private void combine(List<Component> components)
+    {
+        int height = board.getHeight();
+        int width = board.getWidth();
+
+        /* unknown fields and mines not yet known, over the whole board */
+        int unknownFields = 0;
+        int minesLeft = board.getMinesLeft();
+        for (int index = 0; index < height * width; index++)
+        {
+            if (solver.isUnknown(index))
+                unknownFields++;
+            else if (solver.isKnownMine(index) && !board.isFlagged(index / width, index % width))
+                minesLeft--;
+        }
+        int frontierFields = 0;
+        for (Component component: components)
+            frontierFields += component.fields.length;
+        int interiorFields = unknownFields - frontierFields;
+
+        interiorField = -1;
+        interiorProbability = 0;
+        if (interiorFields > 0)
+        {
+            Set<Integer> frontier = new HashSet<>();
+            for (Component component: components)
+                for (int field: component.fields)
+                    frontier.add(field);
+            for (int index = 0; index < height * width && interiorField < 0; index++)
+                if (solver.isUnknown(index) && !frontier.contains(index))
+                    interiorField = index;
+        }
+
+        /* prefix[i] is distribution of mines in components before i, suffix[i] in components from i on */
+        int count = components.size();
+        double[][] prefix = new double[count + 1][];
+        double[][] suffix = new double[count + 1][];
+        prefix[0] = new double[] {1};
+        suffix[count] = new double[] {1};
+        for (int counter = 0; counter < count; counter++)
+            prefix[counter + 1] = convolve(prefix[counter], components.get(counter).enumeration.solutions);
+        for (int counter = count - 1; counter >= 0; counter--)
+            suffix[counter] = convolve(components.get(counter).enumeration.solutions, suffix[counter + 1]);
+
+        double[] weights = weights(prefix[count].length, minesLeft, interiorFields);
+        double total = 0;
+        double interiorMines = 0;
+        for (int mines = 0; mines < prefix[count].length; mines++)
+        {
+            total += prefix[count][mines] * weights[mines];
+            if (interiorFields > 0)
+                interiorMines += prefix[count][mines] * weights[mines] * (minesLeft - mines) / interiorFields;
+        }
+        if (total == 0)
+            return;
+        interiorProbability = interiorMines / total;
+
+        for (int counter = 0; counter < count; counter++)
+        {
+            double[] others = convolve(prefix[counter], suffix[counter + 1]);
+            Enumeration enumeration = components.get(counter).enumeration;
+            int[] fields = components.get(counter).fields;
+            /* others are scaled differently than distribution of all components, so total is computed again */
+            double componentTotal = 0;
+            for (int own = 0; own < enumeration.solutions.length; own++)
+                for (int other = 0; other < others.length; other++)
+                    componentTotal += enumeration.solutions[own] * others[other] * weights[own + other];
+            for (int id = 0; id < fields.length; id++)
+            {
+                double mined = 0;
+                for (int own = 0; own < enumeration.mined[id].length; own++)
+                {
+                    if (enumeration.mined[id][own] == 0)
+                        continue;
+                    for (int other = 0; other < others.length; other++)
+                        mined += enumeration.mined[id][own] * others[other] * weights[own + other];
+                }
+                probabilities.put(fields[id], mined / componentTotal);
+            }
+        }
+    }
+
+    /**
+     * Computes distribution of sum of mines of two independent groups.
+     * Result is scaled so that its biggest value is 1, which keeps numbers in range of double.
+     * @param first numbers of solutions of first group by mines.
+     * @param second numbers of solutions of second group by mines.
+     * @return numbers of solutions of both groups by mines.
+     */
+    private static double[] convolve(double[] first, double[] second)
+    {
+        double[] result = new double[first.length + second.length - 1];
+        double max = 0;
+        for (int one = 0; one < first.length; one++)
+        {
+            if (first[one] == 0)
+                continue;
+            for (int two = 0; two < second.length; two++)
+            {
+                result[one + two] += first[one] * second[two];
+                max = Math.max(max, result[one + two]);
+            }
+        }
+        if (max > 0)
+            for (int counter = 0; counter < result.length; counter++)
+                result[counter] /= max;
+        return result;
+    }
+
+    /**
+     * Computes relative weight of putting <code>k</code> mines on frontier, which is number of ways
+     * to put remaining mines on fields not adjacent to frontier, scaled so that the biggest weight is 1.
+     * Logarithms of binomial coefficients C(U, M - k) are computed from the previous one with ratio
+     * C(U, r - 1) / C(U, r) = r / (U - r + 1), so time is proportional to number of weights.
+     * @param length number of weights.
+     * @param minesLeft mines left among unknown fields.
+     * @param interiorFields unknown fields not adjacent to frontier.
+     * @return weights, indexed by number of mines on frontier.
+     */
+    private static double[] weights(int length, int minesLeft, int interiorFields)
+    {
+        double[] weights = new double[length];
+        double[] logarithms = new double[length];
+        Arrays.fill(logarithms, Double.NEGATIVE_INFINITY);
+        double max = Double.NEGATIVE_INFINITY;
+        /* the first number of mines on frontier which leaves no more mines than interior fields */
+        int first = Math.max(0, minesLeft - interiorFields);
+        for (int mines = first; mines < length && mines <= minesLeft; mines++)
+        {
+            int rest = minesLeft - mines;
+            logarithms[mines] = mines == first ? 0
+                    : logarithms[mines - 1] + Math.log(rest + 1) - Math.log(interiorFields - rest);
+            max = Math.max(max, logarithms[mines]);
+        }
+        for (int mines = 0; mines < length && max > Double.NEGATIVE_INFINITY; mines++)
+            weights[mines] = Math.exp(logarithms[mines] - max);
+        return weights;
+    }
+}
@@ -0,0 +1,507 @@
+package Mines.Solver;
+
+import Mines.Model.Board;
+import Mines.Model.CellList;
+
+import java.util.Arrays;
+
+/**
+ * Deterministic solver which finds fields that are surely safe or surely mined.
+ *
+ * Every uncovered field with mines around is a constraint: its covered neighbours hold
+ * the number of mines it shows, minus flags and mines found before. Solver uses two rules:
+ * single constraint (no mines left means all unknown neighbours are safe, as many mines as unknown
+ * neighbours means all are mined) and pairs of constraints (if unknown neighbours of one constraint
+ * are subset of the other's, the difference holds difference of their mines).
+ *
+ * Solver keeps frontier, i.e. uncovered fields which still have unknown neighbours, and a queue
+ * of constraints to check. After a move only constraints next to changed fields are queued,
+ * so cost of a move depends on the change, not on size of the board.
+ * Flags on board are trusted to be mines.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class Solver
+{
+    private static final byte UNKNOWN = 0;
+    private static final byte SAFE = 1;
+    private static final byte MINE = 2;
+
+    private Board board;
+    private int height;
+    private int width;
+
+    private byte[] known;
+    private int[] frontier;
+    private int[] frontierPosition;
+    private int frontierSize;
+
+    private boolean[] queued;
+    private int[] queue;
+    private int queueSize;
+
+    private int[] safeFields;
+    private int safeCount;
+    private int[] mineFields;
+    private int mineCount;
+
+    /* unknown neighbours of examined constraints and their numbers of mines */
+    private int[] unknown = new int[8];
+    private int[] otherUnknown = new int[8];
+    private int unknownCount;
+    private int remainingMines;
+
+    /**
+     * Creates solver of given board. <code>reset</code> must be called when new game is started.
+     * @param board board to solve.
+     */
+    public Solver(Board board)
+    {
+        this.board = board;
+    }
+
+    /**
+     * Clears knowledge of solver for new game on its board. Arrays are reused if board size didn't change.
+     */
+    public void reset()
+    {
+        height = board.getHeight();
+        width = board.getWidth();
+        int fields = height * width;
+        if (known == null || known.length != fields)
+        {
+            known = new byte[fields];
+            frontier = new int[fields];
+            frontierPosition = new int[fields];
+            queued = new boolean[fields];
+            queue = new int[16];
+            safeFields = new int[16];
+            mineFields = new int[16];
+        }
+        else
+        {
+            Arrays.fill(known, UNKNOWN);
+            Arrays.fill(queued, false);
+        }
+        Arrays.fill(frontierPosition, -1);
+        frontierSize = 0;
+        queueSize = 0;
+        safeCount = 0;
+        mineCount = 0;
+    }
+
+    /**
+     * Tells solver which fields were uncovered or flagged since last update.
+     * Constraints of these fields and of uncovered fields around them are queued to be checked.
+     * @param changed indices of changed fields.
+     */
+    public void update(CellList changed)
+    {
+        for (int counter = 0; counter < changed.size(); counter++)
+            updateField(changed.get(counter));
+    }
+
+    /**
+     * Tells solver that given field was uncovered or its flag was toggled.
+     * @param index index of changed field.
+     */
+    public void updateField(int index)
+    {
+        int x = index / width;
+        int y = index % width;
+        if (board.isUncovered(x, y) && known[index] == UNKNOWN)
+            known[index] = SAFE;
+        enqueue(index);
+        enqueueAround(index);
+    }
+
+    /**
+     * Checks queued constraints until no rule gives new information.
+     * Fields found safe or mined can be then taken with <code>nextSafe</code> and <code>nextMine</code>.
+     */
+    public void solve()
+    {
+        while (queueSize > 0)
+        {
+            int index = queue[--queueSize];
+            queued[index] = false;
+            check(index);
+        }
+    }
+
+    /**
+     * Takes next field found to be safe which is still covered.
+     * @return index of safe field or -1 if there is no such field.
+     */
+    public int nextSafe()
+    {
+        while (safeCount > 0)
+        {
+            int index = safeFields[--safeCount];
+            if (!board.isUncovered(index / width, index % width))
+                return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Takes next field found to be mined which is not flagged yet.
+     * @return index of mined field or -1 if there is no such field.
+     */
+    public int nextMine()
+    {
+        while (mineCount > 0)
+        {
+            int index = mineFields[--mineCount];
+            if (!board.isFlagged(index / width, index % width))
+                return index;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether solver knows that field is safe.
+     * @param index index of field.
+     * @return <code>true</code> if field is surely safe.
+     */
+    public boolean isKnownSafe(int index)
+    {
+        return known[index] == SAFE;
+    }
+
+    /**
+     * Checks whether solver knows that field is mined. Flagged fields are counted as known mines.
+     * @param index index of field.
+     * @return <code>true</code> if field is surely mined.
+     */
+    public boolean isKnownMine(int index)
+    {
+        return known[index] == MINE || board.isFlagged(index / width, index % width);
+    }
+
+    /**
+     * Checks whether nothing is known about covered field.
+     * @param index index of field.
+     * @return <code>true</code> if field is covered, not flagged and neither known to be safe nor mined.
+     */
+    public boolean isUnknown(int index)
+    {
+        return known[index] == UNKNOWN && !board.isUncovered(index / width, index % width)
+                && !board.isFlagged(index / width, index % width);
+    }
+
+    /**
+     * Returns number of fields in frontier.
+     * @return size of frontier.
+     */
+    public int getFrontierSize()
+    {
+        return frontierSize;
+    }
+
+    /**
+     * Returns field of frontier at given position. Order of fields changes when frontier is updated.
+     * @param position position in frontier (counting from 0).
+     * @return index of uncovered field with unknown neighbours.
+     */
+    public int getFrontierField(int position)
+    {
+        return frontier[position];
+    }
+
+    /**
+     * Returns number of mines around constraint field which are not flagged nor known,
+     * i.e. number of mines among its unknown neighbours.
+     * @param index index of uncovered field.
+     * @return number of mines left around field.
+     */
+    public int getRemainingMines(int index)
+    {
+        examine(index, unknown);
+        return remainingMines;
+    }
+
+    /**
+     * Fills array with unknown neighbours of constraint field.
+     * @param index index of uncovered field.
+     * @param neighbours array of at least 8 elements to fill.
+     * @return number of unknown neighbours.
+     */
+    public int getUnknownNeighbours(int index, int[] neighbours)
+    {
+        examine(index, neighbours);
+        return unknownCount;
+    }
+
+    /**
+     * Applies rules to constraint of given field and updates frontier.
+     * @param index index of field.
+     */
+    private void check(int index)
+    {
+        int x = index / width;
+        int y = index % width;
+        if (!board.isUncovered(x, y) || board.isMined(x, y))
+            return;
+
+        examine(index, unknown);
+        if (unknownCount == 0)
+        {
+            removeFromFrontier(index);
+            return;
+        }
+        addToFrontier(index);
+
+        if (remainingMines == 0 || remainingMines == unknownCount)
+        {
+            byte value = remainingMines == 0 ? SAFE : MINE;
+            int count = unknownCount;
+            int[] fields = Arrays.copyOf(unknown, count);
+            for (int counter = 0; counter < count; counter++)
+                mark(fields[counter], value);
+            removeFromFrontier(index);
+            return;
+        }
+
+        checkPairs(index, x, y);
+    }
+
+    /**
+     * Applies pair rule to constraint of given field and every frontier constraint that can share
+     * unknown neighbours with it, i.e. lies at most two fields away.
+     * After the first pair which marks fields, field is queued again, because its unknown fields changed.
+     * @param index index of field.
+     * @param posX vertical position of field.
+     * @param posY horizontal position of field.
+     */
+    private void checkPairs(int index, int posX, int posY)
+    {
+        int[] own = Arrays.copyOf(unknown, unknownCount);
+        int ownMines = remainingMines;
+
+        for (int x = Math.max(0, posX - 2); x <= Math.min(height - 1, posX + 2); x++)
+        {
+            for (int y = Math.max(0, posY - 2); y <= Math.min(width - 1, posY + 2); y++)
+            {
+                int other = x * width + y;
+                if (other == index || frontierPosition[other] < 0)
+                    continue;
+
+                examine(other, otherUnknown);
+                int otherCount = unknownCount;
+                int otherMines = remainingMines;
+                if (otherCount == 0)
+                    continue;
+
+                if (applyPair(own, own.length, ownMines, otherUnknown, otherCount, otherMines)
+                        || applyPair(otherUnknown, otherCount, otherMines, own, own.length, ownMines))
+                {
+                    /* marked fields may not touch this field, so it is queued again for the rest of pairs */
+                    enqueue(index);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies pair rule to two constraints: if unknown fields of smaller one are subset of unknown
+     * fields of bigger one, the rest of fields of bigger one holds difference of their mines.
+     * @param big unknown fields of bigger constraint.
+     * @param bigSize number of unknown fields of bigger constraint.
+     * @param bigMines number of mines among unknown fields of bigger constraint.
+     * @param small unknown fields of smaller constraint.
+     * @param smallSize number of unknown fields of smaller constraint.
+     * @param smallMines number of mines among unknown fields of smaller constraint.
+     * @return <code>true</code> if any field was marked.
+     */
+    private boolean applyPair(int[] big, int bigSize, int bigMines, int[] small, int smallSize, int smallMines)
+    {
+        if (bigSize <= smallSize || !containsAll(big, bigSize, small, smallSize))
+            return false;
+
+        if (bigMines == smallMines)
+        {
+            markDifference(big, bigSize, small, smallSize, SAFE);
+            return true;
+        }
+        if (bigMines - smallMines == bigSize - smallSize)
+        {
+            markDifference(big, bigSize, small, smallSize, MINE);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether first set of fields contains all fields of second set.
+     * @param set first set.
+     * @param setSize size of first set.
+     * @param subset second set.
+     * @param subsetSize size of second set.
+     * @return <code>true</code> if second set is subset of the first.
+     */
+    private static boolean containsAll(int[] set, int setSize, int[] subset, int subsetSize)
+    {
+        for (int counter = 0; counter < subsetSize; counter++)
+        {
+            if (!contains(set, setSize, subset[counter]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether set of fields contains given field.
+     * @param set set of fields.
+     * @param setSize size of set.
+     * @param field index of field.
+     * @return <code>true</code> if field is in set.
+     */
+    private static boolean contains(int[] set, int setSize, int field)
+    {
+        for (int counter = 0; counter < setSize; counter++)
+        {
+            if (set[counter] == field)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Marks fields of first set which are not in second set.
+     * Arrays are copied first, because marking fields reuses arrays of solver.
+     * @param set first set.
+     * @param setSize size of first set.
+     * @param subset second set.
+     * @param subsetSize size of second set.
+     * @param value <code>SAFE</code> or <code>MINE</code>.
+     */
+    private void markDifference(int[] set, int setSize, int[] subset, int subsetSize, byte value)
+    {
+        int[] fields = Arrays.copyOf(set, setSize);
+        int[] excluded = Arrays.copyOf(subset, subsetSize);
+        for (int field: fields)
+        {
+            if (!contains(excluded, excluded.length, field))
+                mark(field, value);
+        }
+    }
+
+    /**
+     * Counts unknown neighbours of constraint field and mines left among them.
+     * Results are stored in <code>unknownCount</code> and <code>remainingMines</code>.
+     * @param index index of uncovered field.
+     * @param neighbours array to fill with unknown neighbours.
+     */
+    private void examine(int index, int[] neighbours)
+    {
+        int posX = index / width;
+        int posY = index % width;
+        unknownCount = 0;
+        remainingMines = board.getNearbyMines(posX, posY);
+        for (int x = Math.max(0, posX - 1); x <= Math.min(height - 1, posX + 1); x++)
+        {
+            for (int y = Math.max(0, posY - 1); y <= Math.min(width - 1, posY + 1); y++)
+            {
+                int neighbour = x * width + y;
+                if (neighbour == index || board.isUncovered(x, y))
+                    continue;
+
+                if (known[neighbour] == MINE || board.isFlagged(x, y))
+                    remainingMines--;
+                else if (known[neighbour] == UNKNOWN)
+                    neighbours[unknownCount++] = neighbour;
+            }
+        }
+    }
+
+    /**
+     * Marks unknown field as safe or mined and queues constraints around it.
+     * @param index index of field.
+     * @param value <code>SAFE</code> or <code>MINE</code>.
+     */
+    private void mark(int index, byte value)
+    {
+        if (known[index] != UNKNOWN)
+            return;
+
+        known[index] = value;
+        if (value == SAFE)
+        {
+            if (safeCount == safeFields.length)
+                safeFields = Arrays.copyOf(safeFields, safeCount * 2);
+            safeFields[safeCount++] = index;
+        }
+        else
+        {
+            if (mineCount == mineFields.length)
+                mineFields = Arrays.copyOf(mineFields, mineCount * 2);
+            mineFields[mineCount++] = index;
+        }
+        enqueueAround(index);
+    }
+
+    /**
+     * Queues uncovered fields around given field.
+     * @param index index of field.
+     */
+    private void enqueueAround(int index)
+    {
+        int posX = index / width;
+        int posY = index % width;
+        for (int x = Math.max(0, posX - 1); x <= Math.min(height - 1, posX + 1); x++)
+        {
+            for (int y = Math.max(0, posY - 1); y <= Math.min(width - 1, posY + 1); y++)
+            {
+                if (board.isUncovered(x, y))
+                    enqueue(x * width + y);
+            }
+        }
+    }
+
+    /**
+     * Queues constraint of given field if it isn't queued already.
+     * @param index index of field.
+     */
+    private void enqueue(int index)
+    {
+        if (queued[index])
+            return;
+
+        queued[index] = true;
+        if (queueSize == queue.length)
+            queue = Arrays.copyOf(queue, queueSize * 2);
+        queue[queueSize++] = index;
+    }
+
+    /**
+     * Adds field to frontier if it isn't there.
+     * @param index index of field.
+     */
+    private void addToFrontier(int index)
+    {
+        if (frontierPosition[index] >= 0)
+            return;
+
+        frontierPosition[index] = frontierSize;
+        frontier[frontierSize++] = index;
+    }
+
+    /**
+     * Removes field from frontier, moving last field of frontier to its place.
+     * @param index index of field.
+     */
+    private void removeFromFrontier(int index)
+    {
+        int position = frontierPosition[index];
+        if (position < 0)
+            return;
+
+        int last = frontier[--frontierSize];
+        frontier[position] = last;
+        frontierPosition[last] = position;
+        frontierPosition[index] = -1;
+    }
+}
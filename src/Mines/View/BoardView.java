@@ -0,0 +1,243 @@
+package Mines.View;
+
+import Mines.Controller.Controller;
+import Mines.Log.EventLog;
+import Mines.Metrics.Metrics;
+import Mines.Model.CellList;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
+
+import static Mines.Images.*;
+
+/**
+ * Board drawn as a single component, used instead of grid of buttons for big boards.
+ * Fields are painted from one image containing all tiles, and only fields inside clip
+ * rectangle are painted. Clicked field is computed from mouse position.
+ * Component is <code>Scrollable</code> by whole fields, so boards bigger than screen
+ * can be put in <code>JScrollPane</code>; then only visible part of board is painted.
+ * Latency of click which changed visible fields is recorded when they are painted, not when repaint
+ * is requested, so it includes painting.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+class BoardView extends JComponent implements Scrollable
+{
+    private static final BufferedImage ATLAS = createAtlas();
+    /* clicks waiting for painting of fields they changed, further clicks are recorded without painting */
+    private static final int MAX_PENDING_CLICKS = 16;
+
+    private int height;
+    private int width;
+    private Controller controller;
+    private boolean enabled = true;
+    private boolean repaintRequested;
+    private int[] pendingX = new int[MAX_PENDING_CLICKS];
+    private int[] pendingY = new int[MAX_PENDING_CLICKS];
+    private boolean[] pendingRight = new boolean[MAX_PENDING_CLICKS];
+    private long[] pendingStart = new long[MAX_PENDING_CLICKS];
+    private int pendingClicks;
+
+    /**
+     * Creates view of board with given size and sets its listener.
+     * @param controller reference to controller.
+     * @param height board height.
+     * @param width board width.
+     */
+    BoardView(Controller controller, int height, int width)
+    {
+        this.controller = controller;
+        this.height = height;
+        this.width = width;
+
+        setPreferredSize(new Dimension(IMAGE_WIDTH * width, IMAGE_HEIGHT * height));
+        setOpaque(true);
+
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                long start = System.nanoTime();
+                int x = e.getY() / IMAGE_HEIGHT;
+                int y = e.getX() / IMAGE_WIDTH;
+                if (!enabled || e.getX() < 0 || e.getY() < 0 || x >= BoardView.this.height || y >= BoardView.this.width)
+                    return;
+
+                repaintRequested = false;
+                boolean right = SwingUtilities.isRightMouseButton(e);
+                if (right) {
+                    EventLog.log(EventLog.Type.RIGHT_CLICK, x, y);
+                    controller.rightClicked(x, y);
+                }
+                else
+                {
+                    EventLog.log(EventLog.Type.LEFT_CLICK, x, y);
+                    controller.leftClicked(x, y);
+                }
+                clickHandled(x, y, right, start);
+            }
+        });
+    }
+
+    /**
+     * Records latency of handled click at once if it didn't change any visible field,
+     * otherwise keeps it until changed fields are painted.
+     * @param x vertical position of clicked field (counting from 0).
+     * @param y horizontal position of clicked field (counting from 0).
+     * @param right whether field was clicked with right button.
+     * @param start value of <code>System.nanoTime</code> when mouse button was released.
+     */
+    private void clickHandled(int x, int y, boolean right, long start)
+    {
+        if (!repaintRequested || pendingClicks == MAX_PENDING_CLICKS)
+        {
+            Metrics.clickHandled(x, y, right, start);
+            return;
+        }
+
+        pendingX[pendingClicks] = x;
+        pendingY[pendingClicks] = y;
+        pendingRight[pendingClicks] = right;
+        pendingStart[pendingClicks] = start;
+        pendingClicks++;
+    }
+
+    /**
+     * Paints fields which lie inside clip rectangle, each as a part of tiles image.
+     * @param g graphics to paint on.
+     */
+    @Override
+    protected void paintComponent(Graphics g)
+    {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null)
+            clip = new Rectangle(getSize());
+
+        int firstRow = Math.max(0, clip.y / IMAGE_HEIGHT);
+        int lastRow = Math.min(height - 1, (clip.y + clip.height - 1) / IMAGE_HEIGHT);
+        int firstColumn = Math.max(0, clip.x / IMAGE_WIDTH);
+        int lastColumn = Math.min(width - 1, (clip.x + clip.width - 1) / IMAGE_WIDTH);
+
+        for (int x = firstRow; x <= lastRow; x++)
+        {
+            int top = x * IMAGE_HEIGHT;
+            for (int y = firstColumn; y <= lastColumn; y++)
+            {
+                int left = y * IMAGE_WIDTH;
+                int tile = controller.getTile(x, y) * IMAGE_WIDTH;
+                g.drawImage(ATLAS, left, top, left + IMAGE_WIDTH, top + IMAGE_HEIGHT,
+                        tile, 0, tile + IMAGE_WIDTH, IMAGE_HEIGHT, null);
+            }
+        }
+
+        for (int counter = 0; counter < pendingClicks; counter++)
+            Metrics.clickHandled(pendingX[counter], pendingY[counter], pendingRight[counter], pendingStart[counter]);
+        pendingClicks = 0;
+    }
+
+    /**
+     * Schedules repaint of whole visible part of board.
+     */
+    void refreshBoard()
+    {
+        repaint();
+        repaintRequested = true;
+    }
+
+    /**
+     * Schedules repaint of given fields which are visible. Fields outside of visible part of board
+     * are skipped, they will be painted with their current state when scrolled into view.
+     * @param fields indices of fields, field in point (x, y) has index <code>x * width + y</code>.
+     */
+    void refreshFields(CellList fields)
+    {
+        Rectangle visible = getVisibleRect();
+        int firstRow = visible.y / IMAGE_HEIGHT;
+        int lastRow = (visible.y + visible.height - 1) / IMAGE_HEIGHT;
+        int firstColumn = visible.x / IMAGE_WIDTH;
+        int lastColumn = (visible.x + visible.width - 1) / IMAGE_WIDTH;
+
+        for (int counter = 0; counter < fields.size(); counter++)
+        {
+            int x = fields.get(counter) / width;
+            int y = fields.get(counter) % width;
+            if (x >= firstRow && x <= lastRow && y >= firstColumn && y <= lastColumn)
+            {
+                repaint(y * IMAGE_WIDTH, x * IMAGE_HEIGHT, IMAGE_WIDTH, IMAGE_HEIGHT);
+                repaintRequested = true;
+            }
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize()
+    {
+        return getPreferredSize();
+    }
+
+    /**
+     * Scrolls by one field.
+     */
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        return orientation == SwingConstants.VERTICAL ? IMAGE_HEIGHT : IMAGE_WIDTH;
+    }
+
+    /**
+     * Scrolls by visible part of board, rounded down to whole fields.
+     */
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction)
+    {
+        if (orientation == SwingConstants.VERTICAL)
+            return Math.max(IMAGE_HEIGHT, visibleRect.height / IMAGE_HEIGHT * IMAGE_HEIGHT);
+        return Math.max(IMAGE_WIDTH, visibleRect.width / IMAGE_WIDTH * IMAGE_WIDTH);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight()
+    {
+        return false;
+    }
+
+    /**
+     * Disables the board, so it won't react to clicks.
+     */
+    void disableBoard()
+    {
+        enabled = false;
+    }
+
+    /**
+     * Enables the board again, so it reacts to clicks.
+     */
+    void enableBoard()
+    {
+        enabled = true;
+    }
+
+    /**
+     * Paints all tiles side by side on one image, in order of <code>TILES</code>.
+     * @return image with all tiles.
+     */
+    private static BufferedImage createAtlas()
+    {
+        BufferedImage atlas = new BufferedImage(IMAGE_WIDTH * TILES.length, IMAGE_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = atlas.createGraphics();
+        for (int tile = 0; tile < TILES.length; tile++)
+        {
+            graphics.drawImage(TILES[tile].getImage(), tile * IMAGE_WIDTH, 0, IMAGE_WIDTH, IMAGE_HEIGHT, null);
+        }
+        graphics.dispose();
+        return atlas;
+    }
+}
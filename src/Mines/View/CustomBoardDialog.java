@@ -5,6 +5,8 @@ import Mines.Controller.*;
 import javax.swing.*;
 import java.awt.*;
 
+import static Mines.Controller.Controller.*;
+
 /**
  * Class for dialog that gets from user parameters for custom game.
  *
@@ -36,7 +38,8 @@ public class CustomBoardDialog extends JDialog
                 dispose();
             } catch (Exception exception) {
                 JOptionPane.showMessageDialog(this, "Board requirements not met.\n" +
-                        "Board mustn't be smaller than 8x8, nor bigger than 32x50.\n" +
+                        "Board mustn't be smaller than " + MIN_SIZE + "x" + MIN_SIZE +
+                        ", nor bigger than " + MAX_HEIGHT + "x" + MAX_WIDTH + ".\n" +
                         "Also there must be at least 2 non mined fields.");
             }
 
@@ -2,6 +2,9 @@ package Mines.View;
 
 
 import Mines.Controller.Controller;
+import Mines.Log.EventLog;
+import Mines.Metrics.Metrics;
+import Mines.Model.CellList;
 
 import javax.swing.*;
 import java.awt.*;
@@ -18,6 +21,9 @@ import static Mines.Controller.Controller.*;
  */
 public class GUI
 {
+    /* Boards with more fields are drawn as single BoardView instead of grid of buttons */
+    private static final int MAX_BUTTON_FIELDS = 32 * 50;
+
     private int height;
     private int width;
 
@@ -27,11 +33,14 @@ public class GUI
     private JPanel statusBar;
     private Controller controller;
     private FieldGUI[] board;
+    private BoardView boardView;
     private JMenuBar menuBar = new JMenuBar();
     private JLabel timerText;
     private JLabel gameStateText;
     private JLabel minesLeft;
     private CustomBoardDialog customBoardDialog;
+    private ReplayDialog replayDialog;
+    private long seed;
 
 
     /**
@@ -55,6 +64,8 @@ public class GUI
     /**
      * Function builds GUI window containing board with size given as parameter, status bar with mines
      * number label, time and Game won/Game lost information label.
+     * Boards bigger than <code>MAX_BUTTON_FIELDS</code> are drawn by single <code>BoardView</code>,
+     * smaller ones as grid of buttons.
      * @param height board height.
      * @param width board width.
      */
@@ -63,15 +74,26 @@ public class GUI
         this.height = height;
         this.width = width;
 
-        board = new FieldGUI[this.height * this.width];
         contentPane = new JPanel();
-        boardPanel = new JPanel(new GridLayout(this.height, this.width, 0, 0));
-
         gameStateText.setVisible(false);
 
-        boardPanel.setPreferredSize(new Dimension(IMAGE_WIDTH * this.width, IMAGE_HEIGHT * this.height));
-        for (int counter = 0; counter < this.height * this.width; counter++) {
-            boardPanel.add(board[counter] = new FieldGUI(counter / this.width, counter % this.width));
+        if (this.height * this.width > MAX_BUTTON_FIELDS)
+        {
+            board = new FieldGUI[0];
+            boardView = new BoardView(controller, this.height, this.width);
+            boardPanel = new JPanel(new BorderLayout());
+            boardPanel.add(createViewport(boardView));
+        }
+        else
+        {
+            board = new FieldGUI[this.height * this.width];
+            boardView = null;
+            boardPanel = new JPanel(new GridLayout(this.height, this.width, 0, 0));
+
+            boardPanel.setPreferredSize(new Dimension(IMAGE_WIDTH * this.width, IMAGE_HEIGHT * this.height));
+            for (int counter = 0; counter < this.height * this.width; counter++) {
+                boardPanel.add(board[counter] = new FieldGUI(counter / this.width, counter % this.width));
+            }
         }
 
         customBoardDialog = new CustomBoardDialog(frame, controller);
@@ -84,7 +106,7 @@ public class GUI
         frame.setJMenuBar(menuBar);
 
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        frame.setResizable(false);
+        frame.setResizable(boardView != null);
         frame.pack();
         frame.setVisible(true);
     }
@@ -95,12 +117,33 @@ public class GUI
      */
     public void refreshBoard()
     {
+        if (boardView != null)
+            boardView.refreshBoard();
+
         for (FieldGUI button: board)
         {
             button.refreshImage();
         }
     }
 
+    /**
+     * Function refreshes images only of fields given in list.
+     * @param fields indices of fields to refresh, field in point (x, y) has index <code>x * width + y</code>.
+     */
+    public void refreshFields(CellList fields)
+    {
+        if (boardView != null)
+        {
+            boardView.refreshFields(fields);
+            return;
+        }
+
+        for (int counter = 0; counter < fields.size(); counter++)
+        {
+            board[fields.get(counter)].refreshImage();
+        }
+    }
+
     /**
      * Function shows "Game over" label in the statusbar.
      */
@@ -119,6 +162,32 @@ public class GUI
         gameStateText.setVisible(true);
     }
 
+    /**
+     * Function shows "Generating" label in the statusbar, while board of the first click is generated.
+     */
+    public void showGeneratingText()
+    {
+        gameStateText.setText("Generating board... ");
+        gameStateText.setVisible(true);
+    }
+
+    /**
+     * Function shows label telling that no-guess board wasn't found and board may need guessing.
+     */
+    public void showGuessingText()
+    {
+        gameStateText.setText("May need guessing ");
+        gameStateText.setVisible(true);
+    }
+
+    /**
+     * Function hides "Game over" or "Game won" label, e.g. when the last move of the game is undone.
+     */
+    public void hideGameStateText()
+    {
+        gameStateText.setVisible(false);
+    }
+
     /**
      * Function sets number of mines left to label on statusbar.
      * Number of mines is given to the function as <code>string</code> parameter.
@@ -129,6 +198,71 @@ public class GUI
         minesLeft.setText(number);
     }
 
+    /**
+     * Function shows seed of current board in title of the frame.
+     * @param seed seed of the board.
+     */
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+        frame.setTitle("Mines - seed " + Long.toString(seed));
+    }
+
+    /**
+     * Function shows dialog with seed of current board, which can be copied or replaced by other seed.
+     * If user enters a valid seed, game is restarted with board of this seed.
+     */
+    private void showSeedDialog()
+    {
+        Object input = JOptionPane.showInputDialog(frame, "Seed of the board:", "Seed",
+                JOptionPane.PLAIN_MESSAGE, null, null, Long.toString(seed));
+        if (input == null || input.toString().trim().equals(Long.toString(seed)))
+            return;
+
+        try
+        {
+            controller.restartGame(Long.parseLong(input.toString().trim()));
+        }
+        catch (NumberFormatException exception)
+        {
+            JOptionPane.showMessageDialog(frame, "Seed must be a whole number.");
+        }
+    }
+
+    /**
+     * Function shows dialog controlling replay of the game.
+     * @param moves number of moves in replayed game.
+     */
+    public void showReplayDialog(int moves)
+    {
+        closeReplayDialog();
+        replayDialog = new ReplayDialog(frame, controller, moves);
+        replayDialog.setVisible(true);
+    }
+
+    /**
+     * Function shows in replay dialog number of moves already replayed.
+     * @param move number of moves.
+     */
+    public void setReplayPosition(int move)
+    {
+        if (replayDialog != null)
+            replayDialog.setPosition(move);
+    }
+
+    /**
+     * Function closes replay dialog if it is shown.
+     */
+    public void closeReplayDialog()
+    {
+        if (replayDialog == null)
+            return;
+
+        ReplayDialog dialog = replayDialog;
+        replayDialog = null;
+        dialog.dispose();
+    }
+
     /**
      * Function returns <code>JLabel</code> that shows time.
      * @return label containing time.
@@ -161,12 +295,51 @@ public class GUI
      */
     public void disableBoard()
     {
+        if (boardView != null)
+            boardView.disableBoard();
+
         for (FieldGUI button: board)
         {
             button.disableField();
         }
     }
 
+    /**
+     * Function enables each field in board again, after it was disabled by <code>disableBoard</code>.
+     */
+    public void enableBoard()
+    {
+        if (boardView != null)
+            boardView.enableBoard();
+
+        for (FieldGUI button: board)
+        {
+            button.enableField();
+        }
+    }
+
+    /**
+     * Function puts board view in scroll pane not bigger than the screen, so only part of board
+     * that fits on screen is painted.
+     * @param view view of board.
+     * @return scroll pane containing the view.
+     */
+    private JScrollPane createViewport(BoardView view)
+    {
+        JScrollPane scrollPane = new JScrollPane(view);
+        Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        Dimension size = view.getPreferredSize();
+        Dimension bar = scrollPane.getVerticalScrollBar().getPreferredSize();
+
+        /* leave space for frame decorations, menu and status bar */
+        int maxWidth = screen.width - 2 * IMAGE_WIDTH;
+        int maxHeight = screen.height - 4 * IMAGE_HEIGHT;
+        scrollPane.setPreferredSize(new Dimension(Math.min(size.width + bar.width, maxWidth),
+                Math.min(size.height + bar.width, maxHeight)));
+        scrollPane.getViewport().setScrollMode(JViewport.BLIT_SCROLL_MODE);
+        return scrollPane;
+    }
+
     /**
      * Function initializes menus. It creates menus, fills it with items. Set listeners to each
      * item and adds initialized menu to menubar.
@@ -181,6 +354,11 @@ public class GUI
         JMenuItem newGameExpert = new JMenuItem("Expert");
         JMenuItem newGameCustom = new JMenuItem("Custom");
         JMenuItem highscores = new JMenuItem("Highscores");
+        JMenuItem seedItem = new JMenuItem("Seed");
+        JCheckBoxMenuItem noGuessItem = new JCheckBoxMenuItem("No guessing");
+        JMenuItem replayItem = new JMenuItem("Replay");
+        JMenuItem undoItem = new JMenuItem("Undo");
+        JMenuItem redoItem = new JMenuItem("Redo");
 
         newGameBeginner.addActionListener(e -> {
             try {
@@ -201,6 +379,13 @@ public class GUI
             catch (Exception exception) {}
         });
         newGameCustom.addActionListener(e -> customBoardDialog.setVisible(true));
+        seedItem.addActionListener(e -> showSeedDialog());
+        noGuessItem.addActionListener(e -> controller.setNoGuess(noGuessItem.isSelected()));
+        replayItem.addActionListener(e -> controller.startReplay());
+        undoItem.addActionListener(e -> controller.undo());
+        undoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+        redoItem.addActionListener(e -> controller.redo());
+        redoItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
         highscores.addActionListener(e -> JOptionPane.showMessageDialog(frame, controller.getHighscoresText(),
                 "Highscores", JOptionPane.PLAIN_MESSAGE));
 
@@ -210,6 +395,11 @@ public class GUI
         mainMenu.add(newGameIntermediate);
         mainMenu.add(newGameExpert);
         mainMenu.add(newGameCustom);
+        mainMenu.add(seedItem);
+        mainMenu.add(noGuessItem);
+        mainMenu.add(replayItem);
+        mainMenu.add(undoItem);
+        mainMenu.add(redoItem);
         mainMenu.add(highscores);
         mainMenu.setMnemonic(KeyEvent.VK_M);
 
@@ -269,14 +459,17 @@ public class GUI
                 public void mouseReleased(MouseEvent e) {
                     if (enabled)
                     {
+                        long start = System.nanoTime();
                         if (SwingUtilities.isRightMouseButton(e)) {
-                            System.out.println("R-Clicked: " + Integer.toString(x) + ", " + Integer.toString(y));
+                            EventLog.log(EventLog.Type.RIGHT_CLICK, x, y);
                             controller.rightClicked(x, y);
+                            Metrics.clickHandled(x, y, true, start);
                         }
                         else
                         {
-                            System.out.println("L-Clicked: " + Integer.toString(x) + ", " + Integer.toString(y));
+                            EventLog.log(EventLog.Type.LEFT_CLICK, x, y);
                             controller.leftClicked(x, y);
+                            Metrics.clickHandled(x, y, false, start);
                         }
                     }
                 }
@@ -299,5 +492,13 @@ public class GUI
             enabled = false;
         }
 
+        /**
+         * Enables the field, so it will be interactive again.
+         */
+        private void enableField()
+        {
+            enabled = true;
+        }
+
     }
 }
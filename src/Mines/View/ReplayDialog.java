@@ -0,0 +1,89 @@
+package Mines.View;
+
+import Mines.Controller.*;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+/**
+ * Class for dialog that controls replay of the game: plays and pauses it and seeks to chosen move.
+ * Closing dialog ends replay.
+ *
+ * @author Pawel Rybak
+ * @version 1.0
+ */
+public class ReplayDialog extends JDialog
+{
+    private JSlider slider;
+    private JToggleButton playButton = new JToggleButton("Play");
+    private JLabel moveLabel = new JLabel();
+    private int moves;
+    private boolean updating;
+
+    /**
+     * Creates dialog with slider over moves of replayed game and play button.
+     * @param frame parent component.
+     * @param controller reference to controller.
+     * @param moves number of moves in replayed game.
+     */
+    public ReplayDialog(JFrame frame, Controller controller, int moves) {
+        super(frame, false);
+        setTitle("Replay");
+        this.moves = moves;
+
+        slider = new JSlider(0, moves, 0);
+        slider.addChangeListener(e -> {
+            showMove(slider.getValue());
+            if (!updating)
+                controller.seekReplay(slider.getValue());
+        });
+
+        playButton.addActionListener(e -> {
+            if (playButton.isSelected())
+                controller.playReplay();
+            else
+                controller.pauseReplay();
+        });
+
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                controller.stopReplay();
+            }
+        });
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+        setLayout(new BorderLayout());
+        add(slider);
+        add(playButton, BorderLayout.WEST);
+        add(moveLabel, BorderLayout.EAST);
+        showMove(0);
+
+        pack();
+        setLocationRelativeTo(frame);
+    }
+
+    /**
+     * Moves slider to given move without seeking, when replay moved by itself.
+     * @param move number of moves applied.
+     */
+    public void setPosition(int move)
+    {
+        updating = true;
+        slider.setValue(move);
+        updating = false;
+        if (move >= moves)
+            playButton.setSelected(false);
+    }
+
+    /**
+     * Shows number of move in label.
+     * @param move number of moves applied.
+     */
+    private void showMove(int move)
+    {
+        moveLabel.setText(" " + move + " / " + moves + " ");
+    }
+}